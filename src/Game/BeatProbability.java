@@ -0,0 +1,445 @@
+package Game;
+
+import Players.TableView;
+import Rules.MoveGenerator;
+import Rules.PlayKey;
+import Rules.Rule;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 领出压牌概率引擎
+ * 回答“我领出这手牌，三家对手中至少有一家能压过它的概率”，已知未见牌与每家对手的张数，
+ * 未见牌在满足张数的所有发法中均匀分布
+ *
+ * 单张、对子、三张：能否压过只取决于对手在每个点数上持有哪几张，按点数做超几何计数即可精确求出
+ *   - 对每个点数、每种花色子集预先算出它作为单张/对子/三张的出牌键，
+ *     对某手领出牌，点数 f 上的一组牌“安全”指它的任何非空子集都压不过这手牌
+ *   - 对每个点数枚举未见的这几张牌分给三家的方式（至多 3^4 种），只保留三家都安全的，按三家各得几张计数
+ *   - 对13个点数依次做动态规划合并，得到没有人能压过的发法数，除以发法总数
+ * 五张牌型的组合不能按点数拆开：领出五张牌时，用 DealSampler 均匀抽样发牌估计；
+ * 规则允许五张牌型压单张/对子/三张时（如北方规则），精确计数得到的是“有人能用单张、对子、三张压过”的概率，
+ * 只有五张牌型能压过的那部分再用抽样估计后加上
+ * 同一组未见牌与张数下的所有领出牌共用同一批抽样（每副手牌只生成一次出牌），
+ * 因此逐个评估一手牌的全部领出方式时，除第一次外每次估计只是数组比较
+ *
+ * 同一局内重复查询（未见牌、各家张数、出牌）的结果保存在有界的四路组相联缓存中
+ * 实例持有自己的缓冲区与缓存，不能在多个线程间共享
+ */
+public class BeatProbability {
+    public static final int DEFAULT_SAMPLES = 256;
+    private static final int FACES = 13;
+    private static final int PLAYERS = 4;
+    private static final int MAX_HAND = 13;
+    private static final int CACHE_WAYS = 4;
+    private static final int MAX_CLASSES = 16;           // 一个规则中可比较类别的最大数目
+    private static final long FACE_COLUMN = 1L | 1L << 13 | 1L << 26 | 1L << 39;
+
+    private final Rule rule;
+    private final int samples;
+    private final long[][] setKeys = new long[FACES][16]; // [点数][花色子集] 作为一手牌的出牌键
+    private final long[] fiveCardKeys;                   // 每种五张牌型的一个代表，用于判断能否与领出牌比较
+    private final MoveGenerator generator;
+    private final DealSampler sampler = new DealSampler();
+    private final SplittableRandom random;
+
+    // 计算缓冲区
+    private final int[] safe = new int[FACES];           // 每个点数上安全的花色子集（16位）
+    private final long[][] ways = new long[MAX_HAND + 1][MAX_HAND + 1];
+    private long[] counts = new long[0];
+    private long[] nextCounts = new long[0];
+    private final long[] hands = new long[PLAYERS];
+    private final int[] seatSizes = new int[PLAYERS];
+    private boolean lastExact;
+
+    // 抽样结果：每副对手手牌（样本 i 的第 p 家为第 i*3+p 副）在每个类别中的最大出牌键
+    private final int[] classSlot = new int[256];        // 可比较类别 -> 存储位置
+    private final long[] classKeys = new long[MAX_CLASSES]; // 每个存储位置的一个出牌键，代表该类别
+    private int classCount;
+    private final int[] maxAll;
+    private final int[] maxSet;
+    private final int[] querySlots = new int[MAX_CLASSES];
+    private final int[] queryThresholds = new int[MAX_CLASSES];
+    private long sampledDeal = -1L;
+
+    // 缓存：键为（未见牌 | 排序后的三家张数 << 52）与出牌
+    private final int cacheMask;
+    private final long[] cacheDeals;
+    private final long[] cachePlays;
+    private final double[] cacheValues;
+    private long hits;
+    private long misses;
+
+    public BeatProbability(Rule rule) {
+        this(rule, DEFAULT_SAMPLES, 4096);
+    }
+
+    /**
+     * @param rule 比较所用的规则
+     * @param samples 需要估计时抽样的发牌数
+     * @param cacheSize 缓存项数，向上取整为2的幂（至少4项）
+     */
+    public BeatProbability(Rule rule, int samples, int cacheSize) {
+        if (samples <= 0 || cacheSize <= 0) {
+            throw new IllegalArgumentException("Sample count and cache size must be positive");
+        }
+        this.rule = rule;
+        this.samples = samples;
+        this.generator = new MoveGenerator(rule);
+        this.random = new SplittableRandom(0x5EEDL);
+        this.maxAll = new int[samples * (PLAYERS - 1) * MAX_CLASSES];
+        this.maxSet = new int[samples * (PLAYERS - 1) * MAX_CLASSES];
+        Arrays.fill(classSlot, -1);
+        for (int face = 0; face < FACES; face++) {
+            for (int suits = 1; suits < 16; suits++) {
+                setKeys[face][suits] = rule.playKey(Long.expand(suits, FACE_COLUMN) << face);
+            }
+        }
+        // 顺子（3-7）、同花、葫芦、四带一、同花顺（3-7）的代表
+        this.fiveCardKeys = new long[] {
+                rule.playKey(1L << 2 | 1L << 16 | 1L << 4 | 1L << 5 | 1L << 6),
+                rule.playKey(1L << 2 | 1L << 4 | 1L << 6 | 1L << 8 | 1L << 10),
+                rule.playKey(FACE_COLUMN << 2 & ~(1L << 41) | 1L << 3 | 1L << 16),
+                rule.playKey(FACE_COLUMN << 2 | 1L << 3),
+                rule.playKey(0x1FL << 2)
+        };
+
+        int capacity = Integer.highestOneBit(Math.max(cacheSize, CACHE_WAYS));
+        if (capacity < cacheSize) {
+            capacity <<= 1;
+        }
+        this.cacheMask = capacity - 1;
+        this.cacheDeals = new long[capacity];
+        this.cachePlays = new long[capacity];
+        this.cacheValues = new double[capacity];
+    }
+
+    public Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * 按牌桌公开信息计算：未见牌为自己手牌与已出牌之外的牌，对手为轮到出牌者之外的三家
+     */
+    public double probability(long play, TableView table, long hand) {
+        int observer = table.getCurrentPlayerIndex();
+        int[] sizes = new int[PLAYERS - 1];
+        for (int j = 0, p = 0; p < PLAYERS; p++) {
+            if (p != observer) {
+                sizes[j++] = table.getHandSize(p);
+            }
+        }
+        long unseen = ((1L << 52) - 1) & ~hand & ~table.getPlayedMask();
+        return probability(play, unseen, sizes);
+    }
+
+    /**
+     * 至少一家对手能压过这手牌的概率
+     * @param play 领出的牌
+     * @param unseen 未见牌，恰好分给三家对手
+     * @param opponentSizes 三家对手的张数，之和等于未见牌张数，每家不超过13张
+     * @throws IllegalArgumentException 如果出牌无效或张数与未见牌不符
+     */
+    public double probability(long play, long unseen, int[] opponentSizes) {
+        long key = rule.playKey(play);
+        if (!PlayKey.isValid(key)) {
+            throw new IllegalArgumentException("Not a valid play: " + Long.toHexString(play));
+        }
+        if (opponentSizes.length != PLAYERS - 1) {
+            throw new IllegalArgumentException("Exactly 3 opponent hand sizes are required");
+        }
+        int a = opponentSizes[0];
+        int b = opponentSizes[1];
+        int c = opponentSizes[2];
+        if (a + b + c != Long.bitCount(unseen) || Math.max(a, Math.max(b, c)) > MAX_HAND || Math.min(a, Math.min(b, c)) < 0) {
+            throw new IllegalArgumentException("Opponent hand sizes do not match the unseen cards");
+        }
+        // 结果与三家的顺序无关，按排序后的张数做缓存键
+        int low = Math.min(a, Math.min(b, c));
+        int high = Math.max(a, Math.max(b, c));
+        int middle = a + b + c - low - high;
+        long deal = unseen | (long) (low | middle << 4 | high << 8) << 52;
+
+        int slot = find(deal, play);
+        if (slot >= 0) {
+            hits++;
+            return cacheValues[slot];
+        }
+        misses++;
+        double value = compute(deal, play, key, unseen, low, middle, high);
+        store(deal, play, value);
+        return value;
+    }
+
+    /**
+     * 最近一次未命中缓存的计算是否为精确值（没有用到抽样）
+     */
+    public boolean isLastExact() {
+        return lastExact;
+    }
+
+    private double compute(long deal, long play, long key, long unseen, int s0, int s1, int s2) {
+        int cards = Long.bitCount(play);
+        boolean fiveCardsMayBeat = false;
+        for (long fiveKey : fiveCardKeys) {
+            fiveCardsMayBeat |= rule.canCompareKeys(key, fiveKey);
+        }
+        if (cards > 3) {
+            lastExact = false;
+            return estimate(deal, key, unseen, s0, s1, s2, false);
+        }
+        double setProbability = 1.0 - (double) countSafeDeals(key, unseen, s0, s1, s2)
+                / multinomial(s0 + s1 + s2, s0, s1);
+        lastExact = !fiveCardsMayBeat;
+        if (!fiveCardsMayBeat) {
+            return setProbability;
+        }
+        return Math.min(1.0, setProbability + estimate(deal, key, unseen, s0, s1, s2, true));
+    }
+
+    /**
+     * 没有任何一家能用单张、对子、三张压过领出牌的发法数
+     */
+    private long countSafeDeals(long key, long unseen, int s0, int s1, int s2) {
+        computeSafe(key);
+        int width = s1 + 1;
+        int cells = (s0 + 1) * width;
+        if (counts.length < cells) {
+            counts = new long[cells];
+            nextCounts = new long[cells];
+        }
+        Arrays.fill(counts, 0, cells, 0L);
+        counts[0] = 1L;
+        int dealt = 0;
+        for (int face = 0; face < FACES; face++) {
+            int suits = (int) Long.compress(unseen >>> face, FACE_COLUMN);
+            if (suits == 0) {
+                continue;
+            }
+            int n = Integer.bitCount(suits);
+
+            // 这个点数的牌分给三家、三家都安全的方式，按前两家各得几张计数
+            for (int i = 0; i <= n; i++) {
+                Arrays.fill(ways[i], 0, n + 1, 0L);
+            }
+            int safeSets = safe[face];
+            for (int first = suits; ; first = (first - 1) & suits) {
+                if ((safeSets >>> first & 1) != 0) {
+                    int rest = suits & ~first;
+                    for (int second = rest; ; second = (second - 1) & rest) {
+                        if ((safeSets >>> second & 1) != 0 && (safeSets >>> (rest & ~second) & 1) != 0) {
+                            ways[Integer.bitCount(first)][Integer.bitCount(second)]++;
+                        }
+                        if (second == 0) {
+                            break;
+                        }
+                    }
+                }
+                if (first == 0) {
+                    break;
+                }
+            }
+
+            Arrays.fill(nextCounts, 0, cells, 0L);
+            for (int r0 = 0; r0 <= s0; r0++) {
+                for (int r1 = 0; r1 <= s1 && r0 + r1 <= dealt; r1++) {
+                    long current = counts[r0 * width + r1];
+                    if (current == 0 || dealt - r0 - r1 > s2) {
+                        continue;
+                    }
+                    for (int k0 = 0; k0 <= n && r0 + k0 <= s0; k0++) {
+                        for (int k1 = 0; k0 + k1 <= n && r1 + k1 <= s1; k1++) {
+                            long w = ways[k0][k1];
+                            if (w != 0 && dealt + n - r0 - k0 - r1 - k1 <= s2) {
+                                nextCounts[(r0 + k0) * width + r1 + k1] += current * w;
+                            }
+                        }
+                    }
+                }
+            }
+            long[] swap = counts;
+            counts = nextCounts;
+            nextCounts = swap;
+            dealt += n;
+        }
+        return counts[s0 * width + s1];
+    }
+
+    /**
+     * 每个点数上哪些花色子集安全：自身与所有非空子集都压不过领出牌
+     */
+    private void computeSafe(long key) {
+        for (int face = 0; face < FACES; face++) {
+            int safeSets = 1; // 空集总是安全的
+            long[] keys = setKeys[face];
+            for (int suits = 1; suits < 16; suits++) {
+                long setKey = keys[suits];
+                boolean beats = PlayKey.isValid(setKey) && rule.canCompareKeys(setKey, key)
+                        && rule.compareKeys(setKey, key) > 0;
+                boolean subsetsSafe = true;
+                for (int bits = suits; bits != 0; bits &= bits - 1) {
+                    subsetsSafe &= (safeSets >>> (suits & ~(bits & -bits)) & 1) != 0;
+                }
+                if (!beats && subsetsSafe) {
+                    safeSets |= 1 << suits;
+                }
+            }
+            safe[face] = safeSets;
+        }
+    }
+
+    /**
+     * 抽样估计
+     * 同一组未见牌与张数只抽样一次：记下每副对手手牌在各可比较类别中能出的最大出牌键
+     * （全部牌型一份，只算单张、对子、三张一份），之后对任何领出牌的估计只需逐一比较
+     * @param residualOnly 为 true 时只统计“没有人能用单张、对子、三张压过，但有人能用五张牌型压过”的比例
+     */
+    private double estimate(long deal, long key, long unseen, int s0, int s1, int s2, boolean residualOnly) {
+        prepareSamples(deal, unseen, s0, s1, s2);
+
+        // 与领出牌可比较的类别，以及每个类别中要压过它需要超过的键值（同类别内按低16位比较）
+        int comparable = 0;
+        for (int slot = 0; slot < classCount; slot++) {
+            if (rule.canCompareKeys(classKeys[slot], key)) {
+                int threshold = (int) (key & 0xFFFF);
+                if (((classKeys[slot] ^ key) & ~0xFFFFL) != 0) {
+                    threshold = crossClassThreshold(classKeys[slot] & ~0xFFFFL, key);
+                }
+                querySlots[comparable] = slot;
+                queryThresholds[comparable] = threshold;
+                comparable++;
+            }
+        }
+
+        int beaten = 0;
+        for (int i = 0, hand = 0; i < samples; i++, hand += PLAYERS - 1) {
+            boolean anyBeat = false;
+            boolean setBeat = false;
+            for (int p = 0; p < PLAYERS - 1; p++) {
+                int base = (hand + p) * MAX_CLASSES;
+                for (int c = 0; c < comparable; c++) {
+                    int at = base + querySlots[c];
+                    anyBeat |= maxAll[at] > queryThresholds[c];
+                    setBeat |= maxSet[at] > queryThresholds[c];
+                }
+            }
+            if (anyBeat && !(residualOnly && setBeat)) {
+                beaten++;
+            }
+        }
+        return (double) beaten / samples;
+    }
+
+    /**
+     * 不同类别之间的比较交给规则：在 classBase 类别中二分查找压不过领出牌的最大低16位键值，
+     * 全部能压过时返回 -1（同类别内的大小随低16位单调）
+     */
+    private int crossClassThreshold(long classBase, long key) {
+        int low = -1;
+        int high = 0xFFFF;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (rule.compareKeys(classBase | mid, key) <= 0) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 为一组未见牌与张数抽样，记录每副对手手牌在各类别中的最大出牌键（低16位），没有时为 -1
+     */
+    private void prepareSamples(long deal, long unseen, int s0, int s1, int s2) {
+        if (sampledDeal == deal) {
+            return;
+        }
+        seatSizes[0] = 0;
+        seatSizes[1] = s0;
+        seatSizes[2] = s1;
+        seatSizes[3] = s2;
+        sampler.prepare(0, unseen, seatSizes, null);
+        Arrays.fill(maxAll, -1);
+        Arrays.fill(maxSet, -1);
+        for (int i = 0, hand = 0; i < samples; i++) {
+            sampler.sample(random, hands);
+            for (int p = 1; p < PLAYERS; p++, hand++) {
+                int count = generator.generate(hands[p], 0L, false);
+                for (int m = 0; m < count; m++) {
+                    long moveKey = generator.keyAt(m);
+                    int at = hand * MAX_CLASSES + classSlotOf(moveKey);
+                    int value = (int) (moveKey & 0xFFFF);
+                    maxAll[at] = Math.max(maxAll[at], value);
+                    if (Long.bitCount(generator.moveAt(m)) <= 3) {
+                        maxSet[at] = Math.max(maxSet[at], value);
+                    }
+                }
+            }
+        }
+        sampledDeal = deal;
+    }
+
+    /**
+     * 出牌键所属类别的存储位置，类别首次出现时分配
+     */
+    private int classSlotOf(long moveKey) {
+        int cls = (int) (moveKey >>> 16) & 0xFF;
+        if (classSlot[cls] < 0) {
+            if (classCount == MAX_CLASSES) {
+                throw new IllegalStateException("Too many comparability classes in rule " + rule.getRuleName());
+            }
+            classKeys[classCount] = moveKey;
+            classSlot[cls] = classCount++;
+        }
+        return classSlot[cls];
+    }
+
+    private static double multinomial(int n, int k0, int k1) {
+        double result = 1.0;
+        for (int i = 1; i <= k0; i++) {
+            result = result * (n - k0 + i) / i;
+        }
+        int rest = n - k0;
+        for (int i = 1; i <= k1; i++) {
+            result = result * (rest - k1 + i) / i;
+        }
+        return result;
+    }
+
+    private int find(long deal, long play) {
+        int base = slotOf(deal, play);
+        for (int way = 0; way < CACHE_WAYS; way++) {
+            if (cacheDeals[base + way] == deal && cachePlays[base + way] == play) {
+                return base + way;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 写入缓存：组内各项依次后移一位（淘汰最后一项），新结果写入第一项
+     */
+    private void store(long deal, long play, double value) {
+        int base = slotOf(deal, play);
+        System.arraycopy(cacheDeals, base, cacheDeals, base + 1, CACHE_WAYS - 1);
+        System.arraycopy(cachePlays, base, cachePlays, base + 1, CACHE_WAYS - 1);
+        System.arraycopy(cacheValues, base, cacheValues, base + 1, CACHE_WAYS - 1);
+        cacheDeals[base] = deal;
+        cachePlays[base] = play;
+        cacheValues[base] = value;
+    }
+
+    private int slotOf(long deal, long play) {
+        long h = (deal * 0x9E3779B97F4A7C15L) ^ (play * 0xC2B2AE3D27D4EB4FL);
+        return (int) (h >>> 40) & cacheMask & -CACHE_WAYS;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+}
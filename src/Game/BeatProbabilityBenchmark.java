@@ -0,0 +1,64 @@
+package Game;
+
+import Rules.MoveGenerator;
+import Rules.Rule;
+import java.util.SplittableRandom;
+
+/**
+ * 压牌概率引擎的性能测试
+ * 对随机牌局开局时领出者的每种合法领出牌计算“有人能压过”的概率，
+ * 分别统计单张/对子/三张与五张牌型的平均耗时，以及同一批查询再次执行（命中缓存）的耗时
+ * 运行：java Game.BeatProbabilityBenchmark [局面数] [north|south]
+ */
+public class BeatProbabilityBenchmark {
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        Rule rule = args.length > 1 && args[1].equals("south")
+                ? Game.ruleOf(Game.RULE_SOUTH) : Game.ruleOf(Game.RULE_NORTH);
+        MoveGenerator generator = new MoveGenerator(rule);
+        int[] sizes = {13, 13, 13};
+
+        for (int round = 1; round <= 3; round++) {
+            BeatProbability engine = new BeatProbability(rule, BeatProbability.DEFAULT_SAMPLES, 1 << 16);
+            SplittableRandom random = new SplittableRandom(2024L);
+            long setTime = 0;
+            long setQueries = 0;
+            long fiveTime = 0;
+            long fiveQueries = 0;
+            long cachedTime = 0;
+            long cachedQueries = 0;
+            double sum = 0;
+            for (int i = 0; i < positions; i++) {
+                SearchPosition position = SearchPosition.fromSeed(random.nextLong());
+                long hand = position.getHand(position.getToMove());
+                long unseen = ((1L << 52) - 1) & ~hand;
+                int count = generator.generate(hand, 0L, false);
+                long[] leads = new long[count];
+                for (int m = 0; m < count; m++) {
+                    leads[m] = generator.moveAt(m);
+                }
+                for (long lead : leads) {
+                    long start = System.nanoTime();
+                    sum += engine.probability(lead, unseen, sizes);
+                    long elapsed = System.nanoTime() - start;
+                    if (Long.bitCount(lead) <= 3) {
+                        setTime += elapsed;
+                        setQueries++;
+                    } else {
+                        fiveTime += elapsed;
+                        fiveQueries++;
+                    }
+                }
+                long start = System.nanoTime();
+                for (long lead : leads) {
+                    sum += engine.probability(lead, unseen, sizes);
+                }
+                cachedTime += System.nanoTime() - start;
+                cachedQueries += count;
+            }
+            System.out.printf("第%d轮  %s  单张/对子/三张 %.1f us/次  五张牌型 %.1f us/次  命中缓存 %.0f ns/次  (%.1f)%n",
+                    round, rule.getRuleName(), setTime / 1e3 / Math.max(setQueries, 1),
+                    fiveTime / 1e3 / Math.max(fiveQueries, 1), (double) cachedTime / Math.max(cachedQueries, 1), sum);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package Game;
+
+import Rules.PlayKey;
+import Rules.Rule;
+import java.util.Arrays;
+
+/**
+ * 记牌器
+ * 监听一局中的每次出牌与过牌，以位图维护：
+ *   - 已出的牌、尚未出现的牌（对某位观察者而言再去掉他自己的手牌）以及每家剩余张数
+ *   - 尚未出现的牌中能组成的最大单张、对子、三张（按规则顺序给出关键牌）
+ *   - 过牌带来的反向推断：某家在某手牌上过牌，说明他（如果按能压就压的假设）没有能压过这手牌的出牌，
+ *     记录为该家每个可比较类别中过过的最小出牌键；其中能压过它的单张直接记为“不可能持有”的牌
+ * 过牌推断只是假设，玩家可能故意不出，使用方应把它当作软约束
+ *
+ * 牌的大小按规则对单张的出牌键排序，内部位图按这个顺序编号（第 i 位是第 i 小的牌），
+ * 最大单张即最高位；每个点数剩余几张打包在一个 long 里（每个点数4位），
+ * 剩余不少于2张、3张的点数各用一个按点数顺序编号的位图维护，
+ * 因此每个事件的更新与每次查询都是常数时间
+ */
+public final class CardTracker {
+    private static final int CARDS = 52;
+    private static final int FACES = 13;
+    private static final int MAX_PLAYERS = 4;
+    private static final long FULL_DECK = (1L << CARDS) - 1;
+
+    private final Rule rule;
+
+    // 按规则顺序预先计算的表
+    private final int[] position = new int[CARDS];       // 牌 -> 顺序位置
+    private final int[] cardAt = new int[CARDS];         // 顺序位置 -> 牌
+    private final long[] singleKeys = new long[CARDS];   // 顺序位置 -> 单张出牌键（升序）
+    private final long[] above = new long[CARDS + 1];    // 顺序位置不小于 i 的牌（按原始牌位图）
+    private final int[] faceRank = new int[FACES];       // 面值 -> 点数顺序
+    private final long[] faceCards = new long[FACES];    // 点数顺序 -> 该点数四张牌的顺序位图
+
+    // 随事件更新的状态
+    private long played;         // 已出的牌（原始牌位图）
+    private long ordered;        // 未出的牌（顺序位图）
+    private long faceCounts;     // 每个点数（按点数顺序）剩余张数，每个4位
+    private int pairFaces;       // 剩余不少于2张的点数（按点数顺序）
+    private int tripleFaces;     // 剩余不少于3张的点数（按点数顺序）
+    private final int[] cardCounts = new int[MAX_PLAYERS];
+    private final long[] excluded = new long[MAX_PLAYERS];       // 推断不可能持有的牌
+    private final long[][] passKeys = new long[MAX_PLAYERS][256]; // [座位][可比较类别] 过过的最小出牌键，0 表示没有
+
+    public CardTracker(Rule rule) {
+        this.rule = rule;
+
+        // 按单张出牌键给52张牌排序
+        long[] order = new long[CARDS];
+        for (int card = 0; card < CARDS; card++) {
+            order[card] = (rule.playKey(1L << card) & 0xFFFF) << 8 | card;
+        }
+        Arrays.sort(order);
+        for (int i = 0; i < CARDS; i++) {
+            int card = (int) (order[i] & 0xFF);
+            cardAt[i] = card;
+            position[card] = i;
+            singleKeys[i] = rule.playKey(1L << card);
+        }
+        for (int i = CARDS - 1; i >= 0; i--) {
+            above[i] = above[i + 1] | 1L << cardAt[i];
+        }
+
+        // 点数顺序：按该点数最大一张牌的位置排列
+        int[] top = new int[FACES];
+        for (int card = 0; card < CARDS; card++) {
+            top[card % FACES] = Math.max(top[card % FACES], position[card]);
+        }
+        for (int face = 0; face < FACES; face++) {
+            for (int other = 0; other < FACES; other++) {
+                if (top[other] < top[face]) {
+                    faceRank[face]++;
+                }
+            }
+        }
+        for (int card = 0; card < CARDS; card++) {
+            faceCards[faceRank[card % FACES]] |= 1L << position[card];
+        }
+        reset(new int[MAX_PLAYERS]);
+    }
+
+    public Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * 开始新的一局
+     * @param handSizes 每家发到的张数
+     */
+    public void reset(int[] handSizes) {
+        if (handSizes.length > MAX_PLAYERS) {
+            throw new IllegalArgumentException("At most " + MAX_PLAYERS + " players are supported");
+        }
+        played = 0L;
+        ordered = FULL_DECK;
+        faceCounts = 0x4444444444444L;
+        pairFaces = (1 << FACES) - 1;
+        tripleFaces = (1 << FACES) - 1;
+        Arrays.fill(cardCounts, 0);
+        System.arraycopy(handSizes, 0, cardCounts, 0, handSizes.length);
+        Arrays.fill(excluded, 0L);
+        for (long[] keys : passKeys) {
+            Arrays.fill(keys, 0L);
+        }
+    }
+
+    /**
+     * 某家出牌
+     */
+    public void onPlay(int seat, long cards) {
+        long fresh = cards & ~played;
+        played |= fresh;
+        cardCounts[seat] -= Long.bitCount(fresh);
+        for (long bits = fresh; bits != 0; bits &= bits - 1) {
+            int card = Long.numberOfTrailingZeros(bits);
+            ordered &= ~(1L << position[card]);
+            int face = faceRank[card % FACES];
+            faceCounts -= 1L << (face * 4);
+            int left = (int) (faceCounts >>> (face * 4)) & 0xF;
+            if (left == 1) {
+                pairFaces &= ~(1 << face);
+            } else if (left == 2) {
+                tripleFaces &= ~(1 << face);
+            }
+        }
+    }
+
+    /**
+     * 某家在上一手牌上过牌
+     * 记录该类别中过过的最小出牌键；能压过它的单张记为该家不可能持有的牌
+     * @param lastPlay 他没有压的那手牌
+     */
+    public void onPass(int seat, long lastPlay) {
+        long key = rule.playKey(lastPlay);
+        if (!PlayKey.isValid(key)) {
+            return;
+        }
+        long[] keys = passKeys[seat];
+        int cls = (int) (key >>> 16) & 0xFF;
+        if (keys[cls] == 0L || rule.compareKeys(key, keys[cls]) < 0) {
+            keys[cls] = key;
+        }
+        if (rule.canCompareKeys(singleKeys[0], key)) {
+            excluded[seat] |= above[firstSingleAbove(key)];
+        }
+    }
+
+    /**
+     * 第一个能压过 key 的单张的顺序位置（单张键升序，二分查找），没有时为52
+     */
+    private int firstSingleAbove(long key) {
+        int low = 0;
+        int high = CARDS;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (rule.compareKeys(singleKeys[mid], key) > 0) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 已出过的牌
+     */
+    public long getPlayedMask() {
+        return played;
+    }
+
+    /**
+     * 还没有出过的牌（包括所有人的手牌）
+     */
+    public long getRemainingMask() {
+        return FULL_DECK & ~played;
+    }
+
+    /**
+     * 对持有 hand 的观察者而言尚未出现的牌
+     */
+    public long getUnseenMask(long hand) {
+        return FULL_DECK & ~played & ~hand;
+    }
+
+    public int getCardCount(int seat) {
+        return cardCounts[seat];
+    }
+
+    /**
+     * 还没出现的牌中最大的单张，全部出完时返回 -1
+     */
+    public int highestSingle() {
+        return ordered == 0 ? -1 : cardAt[63 - Long.numberOfLeadingZeros(ordered)];
+    }
+
+    /**
+     * 还没出现的牌能组成的最大对子的关键牌，不存在时返回 -1
+     */
+    public int highestPair() {
+        return highestOfFaces(pairFaces);
+    }
+
+    /**
+     * 还没出现的牌能组成的最大三张的关键牌，不存在时返回 -1
+     */
+    public int highestTriple() {
+        return highestOfFaces(tripleFaces);
+    }
+
+    /**
+     * 点数顺序最大的点数中剩余的最大一张牌
+     */
+    private int highestOfFaces(int faces) {
+        if (faces == 0) {
+            return -1;
+        }
+        long cards = ordered & faceCards[31 - Integer.numberOfLeadingZeros(faces)];
+        return cardAt[63 - Long.numberOfLeadingZeros(cards)];
+    }
+
+    /**
+     * 由过牌推断该家不可能持有的牌
+     */
+    public long getExcludedMask(int seat) {
+        return excluded[seat];
+    }
+
+    /**
+     * 按过牌推断，该家是否可能持有并打出这手牌：
+     * 包含推断不可能持有的牌，或能压过他曾经过过的出牌时返回 false
+     */
+    public boolean canHold(int seat, long play) {
+        if ((play & excluded[seat]) != 0) {
+            return false;
+        }
+        long key = rule.playKey(play);
+        long passed = passKeys[seat][(int) (key >>> 16) & 0xFF];
+        return passed == 0L || !rule.canCompareKeys(key, passed) || rule.compareKeys(key, passed) <= 0;
+    }
+}
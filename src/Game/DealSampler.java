@@ -0,0 +1,252 @@
+package Game;
+
+import Players.TableView;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * 对手暗牌的约束发牌采样器
+ * 把自己看不到的牌发给三家对手，满足：
+ *   - 每家张数等于其剩余手牌数
+ *   - 已出过的牌不参与（由调用方从未见牌中去掉）
+ *   - 每家只能拿到其“可能持有”的牌（例如由过牌推断出某家没有大于某张的单牌）
+ * 在所有满足约束的发牌中严格均匀地抽取一种，不使用拒绝采样
+ *
+ * 做法：按“哪几家可能持有”把未见牌分成至多7组，同组的牌可以互换；
+ * 对各组依次做动态规划，count[g][r0][r1] 为把第 g 组及之后的牌发完、
+ * 使三家恰好还需 r0、r1、r2 张的发法数（r2 由剩余张数确定），
+ * 采样时按发法数的比例为每组选择三家各拿几张，再在组内随机选出具体的牌
+ * 发法总数不超过 39!/(13!)^3 ≈ 8.5e16，用 long 精确计数
+ *
+ * prepare 之后可反复 sample，随机数生成器与输出数组都由调用方提供，采样过程不创建对象
+ * 实例持有自己的缓冲区，不能在多个线程间共享
+ */
+public class DealSampler {
+    private static final int PLAYERS = 4;
+    private static final int OPPONENTS = 3;
+    private static final int GROUPS = 1 << OPPONENTS; // 组号的第 j 位表示第 j 家对手可能持有
+    private static final int MAX_UNSEEN = 39;         // 超过此数时发法总数可能超出 long 的范围
+    private static final long FULL_DECK = (1L << 52) - 1;
+    private static final long[][] BINOMIAL = new long[53][53];
+
+    static {
+        for (int n = 0; n <= 52; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+            }
+        }
+    }
+
+    private final int[] opponents = new int[OPPONENTS];      // 三家对手的座位号
+    private final int[] sizes = new int[OPPONENTS];          // 三家对手的手牌数
+    private final int[][] groupCards = new int[GROUPS][];    // 每组的牌（intValue）
+    private final int[] groupSize = new int[GROUPS];
+    private final int[] suffix = new int[GROUPS + 1];        // 第 g 组及之后的牌数
+    private final long[][] count = new long[GROUPS + 1][];   // count[g][r0 * (sizes[1] + 1) + r1]
+    private int seat = -1;
+    private boolean feasible;
+
+    public DealSampler() {
+        for (int g = 0; g < GROUPS; g++) {
+            groupCards[g] = new int[0];
+        }
+    }
+
+    /**
+     * 按牌桌公开信息准备采样：未见牌为自己手牌与已出牌之外的牌，对手张数取自牌桌
+     * @param table 牌桌公开信息，轮到出牌的一家即观察者
+     * @param hand 观察者自己的手牌
+     * @param useInference 是否遵守牌桌给出的过牌推断（各家不可能持有的牌）
+     * @return 是否存在满足约束的发牌
+     */
+    public boolean prepare(TableView table, long hand, boolean useInference) {
+        int observer = table.getCurrentPlayerIndex();
+        int[] handSizes = new int[PLAYERS];
+        long[] allowed = new long[PLAYERS];
+        for (int p = 0; p < PLAYERS; p++) {
+            handSizes[p] = table.getHandSize(p);
+            allowed[p] = useInference ? ~table.getExcludedMask(p) : -1L;
+        }
+        long unseen = FULL_DECK & ~hand & ~table.getPlayedMask();
+        return prepare(observer, unseen, handSizes, allowed);
+    }
+
+    /**
+     * 准备采样
+     * @param observer 观察者座位，他的手牌不参与发牌
+     * @param unseen 需要发给三家对手的牌
+     * @param handSizes 每个座位的剩余手牌数（观察者的值被忽略）
+     * @param allowed 每个座位可能持有的牌，为null表示不限制
+     * @return 是否存在满足约束的发牌
+     */
+    public boolean prepare(int observer, long unseen, int[] handSizes, long[] allowed) {
+        if (observer < 0 || observer >= PLAYERS || handSizes.length != PLAYERS) {
+            throw new IllegalArgumentException("Invalid seat or hand sizes for a 4-player table");
+        }
+        this.seat = observer;
+        this.feasible = false;
+        int total = 0;
+        for (int j = 0, p = 0; p < PLAYERS; p++) {
+            if (p != observer) {
+                opponents[j] = p;
+                sizes[j] = handSizes[p];
+                total += handSizes[p];
+                j++;
+            }
+        }
+        if (total > MAX_UNSEEN) {
+            throw new IllegalArgumentException("Too many unseen cards to count exactly: " + total);
+        }
+        if (total != Long.bitCount(unseen)) {
+            return false;
+        }
+
+        // 按可能持有者分组
+        Arrays.fill(groupSize, 0);
+        for (long bits = unseen; bits != 0; bits &= bits - 1) {
+            int card = Long.numberOfTrailingZeros(bits);
+            int group = 0;
+            for (int j = 0; j < OPPONENTS; j++) {
+                if (allowed == null || (allowed[opponents[j]] & 1L << card) != 0) {
+                    group |= 1 << j;
+                }
+            }
+            if (group == 0) {
+                return false; // 没有任何一家可能持有这张牌
+            }
+            if (groupSize[group] == groupCards[group].length) {
+                groupCards[group] = Arrays.copyOf(groupCards[group], Math.max(4, groupSize[group] * 2));
+            }
+            groupCards[group][groupSize[group]++] = card;
+        }
+        suffix[GROUPS] = 0;
+        for (int g = GROUPS - 1; g >= 1; g--) {
+            suffix[g] = suffix[g + 1] + groupSize[g];
+        }
+
+        // 从最后一组向前计数
+        int width = sizes[1] + 1;
+        int cells = (sizes[0] + 1) * width;
+        if (count[GROUPS] == null || count[GROUPS].length < cells) {
+            for (int g = 1; g <= GROUPS; g++) {
+                count[g] = new long[cells];
+            }
+        }
+        Arrays.fill(count[GROUPS], 0L);
+        count[GROUPS][0] = 1L;
+        for (int g = GROUPS - 1; g >= 1; g--) {
+            long[] next = count[g + 1];
+            long[] current = count[g];
+            Arrays.fill(current, 0L);
+            int n = groupSize[g];
+            for (int r0 = 0; r0 <= sizes[0]; r0++) {
+                for (int r1 = 0; r1 <= sizes[1]; r1++) {
+                    int r2 = suffix[g] - r0 - r1;
+                    if (r2 < 0 || r2 > sizes[2]) {
+                        continue;
+                    }
+                    long ways = 0L;
+                    for (int k0 = maxTake(g, 0, n, r0); k0 >= 0; k0--) {
+                        for (int k1 = maxTake(g, 1, n - k0, r1); k1 >= 0; k1--) {
+                            int k2 = n - k0 - k1;
+                            if (k2 <= r2 && (k2 == 0 || (g & 4) != 0)) {
+                                ways += BINOMIAL[n][k0] * BINOMIAL[n - k0][k1] * next[(r0 - k0) * width + r1 - k1];
+                            }
+                        }
+                    }
+                    current[r0 * width + r1] = ways;
+                }
+            }
+        }
+        feasible = count[1][sizes[0] * width + sizes[1]] > 0;
+        return feasible;
+    }
+
+    /**
+     * 满足约束的发牌总数
+     */
+    public long countDeals() {
+        return feasible ? count[1][sizes[0] * (sizes[1] + 1) + sizes[1]] : 0L;
+    }
+
+    /**
+     * 均匀抽取一种发牌
+     * @param random 随机数生成器
+     * @param hands 输出：三家对手的手牌写入对应座位，观察者的座位不改动
+     * @throws IllegalStateException 如果没有满足约束的发牌
+     */
+    public void sample(RandomGenerator random, long[] hands) {
+        if (!feasible) {
+            throw new IllegalStateException("No deal satisfies the constraints");
+        }
+        int width = sizes[1] + 1;
+        int r0 = sizes[0];
+        int r1 = sizes[1];
+        long dealt0 = 0L;
+        long dealt1 = 0L;
+        long dealt2 = 0L;
+        for (int g = 1; g < GROUPS; g++) {
+            int n = groupSize[g];
+            if (n == 0) {
+                continue;
+            }
+            int r2 = suffix[g] - r0 - r1;
+            long[] next = count[g + 1];
+
+            // 按发法数的比例选择三家各拿几张，枚举顺序与 prepare 一致
+            long x = random.nextLong(count[g][r0 * width + r1]);
+            int take0 = -1;
+            int take1 = -1;
+            search:
+            for (int k0 = maxTake(g, 0, n, r0); k0 >= 0; k0--) {
+                for (int k1 = maxTake(g, 1, n - k0, r1); k1 >= 0; k1--) {
+                    int k2 = n - k0 - k1;
+                    if (k2 <= r2 && (k2 == 0 || (g & 4) != 0)) {
+                        long ways = BINOMIAL[n][k0] * BINOMIAL[n - k0][k1] * next[(r0 - k0) * width + r1 - k1];
+                        if (x < ways) {
+                            take0 = k0;
+                            take1 = k1;
+                            break search;
+                        }
+                        x -= ways;
+                    }
+                }
+            }
+
+            // 组内随机排列前 take0 + take1 张：前 take0 张给第一家，接着 take1 张给第二家，其余给第三家
+            int[] cards = groupCards[g];
+            int split = take0 + take1;
+            for (int i = 0; i < split; i++) {
+                int j = i + random.nextInt(n - i);
+                int card = cards[j];
+                cards[j] = cards[i];
+                cards[i] = card;
+                if (i < take0) {
+                    dealt0 |= 1L << card;
+                } else {
+                    dealt1 |= 1L << card;
+                }
+            }
+            for (int i = split; i < n; i++) {
+                dealt2 |= 1L << cards[i];
+            }
+            r0 -= take0;
+            r1 -= take1;
+        }
+        hands[opponents[0]] = dealt0;
+        hands[opponents[1]] = dealt1;
+        hands[opponents[2]] = dealt2;
+    }
+
+    /**
+     * 第 g 组最多能给第 j 家几张：不可能持有时为0，否则不超过组内剩余与该家还需的张数
+     */
+    private static int maxTake(int group, int opponent, int available, int need) {
+        return (group & 1 << opponent) == 0 ? 0 : Math.min(available, need);
+    }
+
+    public int getObserver() {
+        return seat;
+    }
+}
@@ -0,0 +1,50 @@
+package Game;
+
+import java.util.SplittableRandom;
+
+/**
+ * 约束发牌采样器的性能测试
+ * 观察者持有13张牌、其余39张未见时，分别测量无约束与有约束（每家随机排除若干张牌）两种情况下
+ * 每秒能发出多少副对手手牌，以及 prepare 的耗时
+ * 运行：java Game.DealSamplerBenchmark [每轮采样数]
+ */
+public class DealSamplerBenchmark {
+    public static void main(String[] args) {
+        int samples = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        SplittableRandom random = new SplittableRandom(2024L);
+        SearchPosition position = SearchPosition.fromSeed(2024L);
+        int observer = position.getToMove();
+        long unseen = ((1L << 52) - 1) & ~position.getHand(observer);
+        int[] sizes = {13, 13, 13, 13};
+
+        // 有约束的情况：每家对手排除若干张未见牌（相当于由过牌推断出的“不可能持有”）
+        long[] allowed = new long[4];
+        for (int p = 0; p < 4; p++) {
+            allowed[p] = p == observer ? -1L : ~(position.getHand(p) & random.nextLong() & random.nextLong());
+        }
+
+        DealSampler sampler = new DealSampler();
+        long[] hands = new long[4];
+        for (int round = 1; round <= 3; round++) {
+            for (int constrained = 0; constrained <= 1; constrained++) {
+                long[] limits = constrained == 1 ? allowed : null;
+                long start = System.nanoTime();
+                for (int i = 0; i < 1000; i++) {
+                    sampler.prepare(observer, unseen, sizes, limits);
+                }
+                double prepareMicros = (System.nanoTime() - start) / 1e3 / 1000;
+
+                long checksum = 0;
+                start = System.nanoTime();
+                for (int i = 0; i < samples; i++) {
+                    sampler.sample(random, hands);
+                    checksum += hands[(observer + 1) % 4] & 0xFF;
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("第%d轮  %s  发法数 %d  prepare %.2f us  %.0f 副/秒  (%d)%n",
+                        round, constrained == 1 ? "有约束" : "无约束", sampler.countDeals(),
+                        prepareMicros, samples / seconds, checksum);
+            }
+        }
+    }
+}
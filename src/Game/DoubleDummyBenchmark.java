@@ -0,0 +1,63 @@
+package Game;
+
+import Rules.Rule;
+import java.util.SplittableRandom;
+
+/**
+ * 双明手求解器的性能测试
+ * 从固定种子发出的牌局中随机去掉若干张牌，得到每家 n 张的残局，由随机的一家领出，
+ * 分别用 1、2、4… 个线程求解同一批残局，统计胜负、节点数与每秒节点数
+ * 各线程数得到的胜负必须一致
+ * 运行：java Game.DoubleDummyBenchmark [局面数] [每家张数] [north|south] [最大线程数]
+ */
+public class DoubleDummyBenchmark {
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int cards = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        Rule rule = args.length > 2 && args[2].equals("south")
+                ? Game.ruleOf(Game.RULE_SOUTH) : Game.ruleOf(Game.RULE_NORTH);
+        int maxThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        SearchPosition[] endgames = new SearchPosition[positions];
+        SplittableRandom random = new SplittableRandom(2024L);
+        for (int i = 0; i < positions; i++) {
+            SearchPosition deal = SearchPosition.fromSeed(random.nextLong());
+            long[] hands = new long[4];
+            for (int p = 0; p < 4; p++) {
+                long hand = deal.getHand(p);
+                while (Long.bitCount(hand) > cards) {
+                    hand &= ~(1L << random.nextInt(52));
+                }
+                hands[p] = hand;
+            }
+            int leader = random.nextInt(4);
+            endgames[i] = new SearchPosition(hands, leader, 0L, leader);
+        }
+
+        int[] expected = null;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            DoubleDummySolver solver = new DoubleDummySolver(rule, threads, 20);
+            int[] results = new int[positions];
+            int wins = 0;
+            long nodes = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < positions; i++) {
+                solver.clear();
+                results[i] = solver.solve(endgames[i]);
+                nodes += solver.getLastNodes();
+                if (results[i] == DoubleDummySolver.WIN) {
+                    wins++;
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            if (expected == null) {
+                expected = results;
+            } else if (!java.util.Arrays.equals(expected, results)) {
+                System.out.println("错误：" + threads + " 个线程的求解结果与单线程不一致");
+            }
+            System.out.printf("%s  每家%d张  %d线程  胜%d/%d  %.1f ms/局  %,d 节点  %.2f M节点/秒%n",
+                    rule.getRuleName(), cards, threads, wins, positions, seconds * 1e3 / positions,
+                    nodes, nodes / seconds / 1e6);
+        }
+    }
+}
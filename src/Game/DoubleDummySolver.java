@@ -0,0 +1,402 @@
+package Game;
+
+import Rules.MoveGenerator;
+import Rules.Rule;
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 双明手求解器
+ * 四家手牌全部已知时，求轮到出牌的一家（求解方）能否保证最先出完手牌
+ * 采用偏执假设：其余三家联手阻止他，只要其中任何一家先出完就算求解方失败
+ * 结果只有胜负两种，alpha-beta 退化为与或树搜索：求解方的节点有一个必胜出牌即胜，
+ * 对手的节点有一个出牌能让求解方失败即败，一旦确定立即剪枝
+ *
+ * 出牌排序：置换表中记下的出牌最先，其次能出完手牌的出牌，其余按张数从多到少、同张数按出牌键从小到大，过牌最后
+ * 领出时先做快速判定：能接连打出对方压不住的牌直到出完的一方直接获胜（对手一方只需防住求解方）
+ * 设置了残局库（EndgameTablebase）时，进入其范围的领出局面直接查表
+ * 每轮至少有一家出牌，牌局一定在有限步内结束，因此置换表中的结果都是证明过的精确胜负
+ * 置换表为所有线程共享的堆外无锁表（TranspositionTable），以局面的 Zobrist 键异或求解方的键查找，
+ * 保存胜负与证明它的出牌（求解方的必胜出牌或对手的反驳出牌），深度取双方剩余总张数，子树越大越优先保留
+ *
+ * 多线程采用 lazy SMP：每个线程从根局面独立搜索，第0个线程按标准顺序，
+ * 其余线程在浅层随机打乱出牌顺序，各自证明的子局面通过共享置换表互相利用，
+ * 最先完成的线程给出结果并通知其他线程停止；各线程的任务在进程共享的 SearchPool 中运行
+ */
+public class DoubleDummySolver {
+    public static final int LOSS = 0;
+    public static final int WIN = 1;
+    public static final int UNKNOWN = -1; // 超出节点数上限或被中止
+
+    private static final int PLAYERS = 4;
+    private static final int MAX_PLIES = 52 * PLAYERS;   // 每出一手牌至多跟三次过牌
+    private static final int SHUFFLE_PLIES = 6;          // 辅助线程打乱出牌顺序的层数
+    private static final int CHECK_INTERVAL = 1024;      // 每隔多少节点检查一次停止条件
+    private static final long[] SOLVER_KEYS = {          // 求解方不同，同一局面的结果不同
+            0x2545F4914F6CDD1DL, 0x9E3779B97F4A7C15L, 0xBF58476D1CE4E5B9L, 0x94D049BB133111EBL};
+
+    private final Rule rule;
+    private final int threads;
+    private final TranspositionTable table;
+    private long nodeLimit;         // 每个线程的节点数上限，0 表示不限
+    private EndgameTablebase tablebase;
+    private volatile boolean stop;
+
+    // 最近一次求解的结果
+    private long bestMove;
+    private long lastNodes;
+
+    public DoubleDummySolver(Rule rule) {
+        this(rule, Runtime.getRuntime().availableProcessors(), 22);
+    }
+
+    /**
+     * @param rule 判断出牌合法性的规则
+     * @param threads 并行搜索的线程数
+     * @param tableBits 置换表项数的以2为底的对数
+     */
+    public DoubleDummySolver(Rule rule, int threads, int tableBits) {
+        this(rule, threads, new TranspositionTable(Math.max(tableBits, 2) - 1));
+    }
+
+    /**
+     * @param table 置换表，可以与同一规则下的其他求解器共享
+     */
+    public DoubleDummySolver(Rule rule, int threads, TranspositionTable table) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        this.rule = rule;
+        this.threads = threads;
+        this.table = table;
+    }
+
+    public Rule getRule() {
+        return rule;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * 限制每个线程搜索的节点数（0 表示不限），超出时 solve 返回 UNKNOWN
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * 使用残局库：搜索到残局库范围内的领出局面时直接查表（根节点除外，需要给出出牌）
+     * @param tablebase 同一规则生成的残局库，为 null 时不使用
+     */
+    public void setTablebase(EndgameTablebase tablebase) {
+        if (tablebase != null && tablebase.getRule() != rule) {
+            throw new IllegalArgumentException("Tablebase was built for another rule: " + tablebase.getRule().getRuleName());
+        }
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * 清空置换表（换用不相关的牌局时不必清空，散列校验保证不会误用）
+     */
+    public void clear() {
+        table.clear();
+    }
+
+    /**
+     * 求解
+     * @param position 局面，不会被修改
+     * @return WIN：轮到出牌的一家能保证最先出完；LOSS：三家联手时不能；UNKNOWN：超出节点数上限
+     */
+    public int solve(SearchPosition position) {
+        bestMove = SearchPosition.PASS;
+        lastNodes = 0;
+        if (position.isGameOver()) {
+            return LOSS; // 已有人出完，轮到的一家不可能再先出完
+        }
+        stop = false;
+        SolveTask[] tasks = new SolveTask[threads];
+        SplittableRandom seeds = new SplittableRandom(position.getHand(0) ^ position.getHand(1) * 31);
+        for (int t = 0; t < threads; t++) {
+            tasks[t] = new SolveTask(position.copy(), t == 0 ? null : seeds.split());
+        }
+        if (threads == 1) {
+            tasks[0].invoke();
+        } else {
+            SearchPool.get().invoke(new RootTask(tasks));
+        }
+
+        int result = UNKNOWN;
+        for (SolveTask task : tasks) {
+            lastNodes += task.nodes;
+            if (result == UNKNOWN && task.getRawResult() != UNKNOWN) {
+                result = task.getRawResult();
+                bestMove = task.rootMove;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 最近一次求解得到 WIN 时的必胜出牌（PASS 表示过牌）；其他结果下为 PASS
+     */
+    public long getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * 最近一次求解所有线程搜索的节点数之和
+     */
+    public long getLastNodes() {
+        return lastNodes;
+    }
+
+    /**
+     * 同时启动各线程的搜索并等待全部结束
+     */
+    @SuppressWarnings("serial") // 任务只在进程内使用，不会序列化
+    private static final class RootTask extends RecursiveTask<Void> {
+        private final SolveTask[] tasks;
+
+        RootTask(SolveTask[] tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected Void compute() {
+            invokeAll(tasks);
+            return null;
+        }
+    }
+
+    /**
+     * 一个线程的搜索，每层使用各自的出牌生成器与出牌缓冲区
+     */
+    @SuppressWarnings("serial") // 任务只在进程内使用，不会序列化
+    private final class SolveTask extends RecursiveTask<Integer> {
+        private final SearchPosition position;
+        private final SplittableRandom random;  // 为 null 时按标准顺序搜索
+        private final int solver;
+        private final MoveGenerator[] generators = new MoveGenerator[MAX_PLIES + 1];
+        private final long[][] moves = new long[MAX_PLIES + 1][];
+        private final long[][] orders = new long[MAX_PLIES + 1][];
+        private final MoveGenerator checker = new MoveGenerator(rule);
+        long nodes;
+        long rootMove = SearchPosition.PASS;
+
+        SolveTask(SearchPosition position, SplittableRandom random) {
+            this.position = position;
+            this.random = random;
+            this.solver = position.getToMove();
+        }
+
+        @Override
+        protected Integer compute() {
+            int result;
+            try {
+                result = search(0) ? WIN : LOSS;
+                stop = true; // 已得到结果，通知其他线程
+            } catch (Aborted e) {
+                result = UNKNOWN;
+            }
+            return result;
+        }
+
+        /**
+         * @return 求解方能否保证最先出完
+         */
+        private boolean search(int ply) {
+            if (position.isGameOver()) {
+                return position.getWinner() == solver;
+            }
+            if (++nodes % CHECK_INTERVAL == 0 && (stop || (nodeLimit > 0 && nodes > nodeLimit))) {
+                throw Aborted.INSTANCE;
+            }
+            if (ply > 0 && tablebase != null) {
+                int known = tablebase.probe(position, solver);
+                if (known != UNKNOWN) {
+                    return known == WIN;
+                }
+            }
+            long key = position.getKey() ^ SOLVER_KEYS[solver];
+            long entry = table.probe(key);
+            long hashMove = TranspositionTable.NO_MOVE;
+            if (entry != TranspositionTable.MISS) {
+                boolean won = TranspositionTable.valueOf(entry) == WIN;
+                hashMove = TranspositionTable.moveOf(entry);
+                if (ply > 0 || !won || hashMove != TranspositionTable.NO_MOVE) {
+                    if (ply == 0 && won) {
+                        rootMove = hashMove;
+                    }
+                    return won;
+                }
+            }
+
+            boolean maximizing = position.getToMove() == solver;
+            int count = orderMoves(ply, hashMove);
+            long[] list = moves[ply];
+            int depth = cardsLeft();
+
+            // 领出时的快速判定：能连续打出压不住的牌直到出完，该方直接获胜
+            if (position.isLeading() && !position.isOpening()) {
+                long first = runOut(list, count, maximizing);
+                if (first != SearchPosition.PASS) {
+                    if (ply == 0) {
+                        rootMove = first;
+                    }
+                    table.store(key, first, maximizing ? WIN : LOSS, depth);
+                    return maximizing;
+                }
+            }
+
+            // 找到一个让本方达到目的的出牌即可证明，记下它；全部失败时没有出牌可记
+            boolean result = !maximizing;
+            long proof = TranspositionTable.NO_MOVE;
+            for (int i = 0; i < count; i++) {
+                long move = list[i];
+                position.play(move);
+                boolean value = search(ply + 1);
+                position.undo();
+                if (value == maximizing) {
+                    result = value;
+                    proof = move;
+                    if (ply == 0) {
+                        rootMove = move;
+                    }
+                    break;
+                }
+            }
+            table.store(key, proof, result ? WIN : LOSS, depth);
+            return result;
+        }
+
+        /**
+         * 四家剩余总张数，作为置换表的深度：张数越多，证明结果所需的搜索越大
+         */
+        private int cardsLeft() {
+            int cards = 0;
+            for (int p = 0; p < PLAYERS; p++) {
+                cards += Long.bitCount(position.getHand(p));
+            }
+            return cards;
+        }
+
+        /**
+         * 领出的一家能否不断打出对方压不住的牌（每次都重新领出），最后一手出完
+         * 求解方的对方是三家；对手一方只需防住求解方，同伴不会去压
+         * 贪心地选择压不住的出牌，找到即可证明，找不到不代表不能出完
+         * @param list 领出者的全部出牌
+         * @return 第一手应出的牌，不能判定时为 PASS
+         */
+        private long runOut(long[] list, int count, boolean maximizing) {
+            int mover = position.getToMove();
+            long rest = position.getHand(mover);
+            long first = SearchPosition.PASS;
+            while (true) {
+                long safe = SearchPosition.PASS;
+                for (int i = 0; i < count; i++) {
+                    long move = list[i];
+                    if (move == rest) {
+                        return first == SearchPosition.PASS ? move : first;
+                    }
+                    if (safe == SearchPosition.PASS && move != SearchPosition.PASS && (move & ~rest) == 0
+                            && !canBeBeaten(move, mover, maximizing)) {
+                        safe = move;
+                    }
+                }
+                if (safe == SearchPosition.PASS) {
+                    return SearchPosition.PASS;
+                }
+                rest &= ~safe;
+                if (first == SearchPosition.PASS) {
+                    first = safe;
+                }
+            }
+        }
+
+        private boolean canBeBeaten(long move, int mover, boolean maximizing) {
+            for (int p = 0; p < PLAYERS; p++) {
+                long hand = position.getHand(p);
+                if (p != mover && (maximizing || p == solver) && hand != 0 && checker.canBeat(hand, move)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 生成并排序轮到的玩家的全部出牌（可以过牌时把过牌放在最后），置换表中的出牌提到最前
+         * @param hashMove 置换表中记下的出牌，没有时为 NO_MOVE
+         * @return 出牌数
+         */
+        private int orderMoves(int ply, long hashMove) {
+            MoveGenerator generator = generators[ply];
+            if (generator == null) {
+                generator = new MoveGenerator(rule);
+                generators[ply] = generator;
+            }
+            int count = position.generateMoves(generator);
+            long hand = position.getHand(position.getToMove());
+            long[] list = moves[ply];
+            long[] order = orders[ply];
+            if (list == null || list.length < count + 1) {
+                list = new long[Math.max(count + 1, 64)];
+                order = new long[list.length];
+                moves[ply] = list;
+                orders[ply] = order;
+            }
+
+            // 排序键：出完手牌最优先，其次张数多，再次出牌键小；插入排序
+            for (int i = 0; i < count; i++) {
+                long move = generator.moveAt(i);
+                long rank = move == hand ? 0L : (long) (6 - Long.bitCount(move)) << 17 | generator.keyAt(i) & 0xFFFF;
+                order[i] = rank;
+                list[i] = move;
+                for (int j = i; j > 0 && order[j - 1] > order[j]; j--) {
+                    long r = order[j - 1];
+                    order[j - 1] = order[j];
+                    order[j] = r;
+                    long m = list[j - 1];
+                    list[j - 1] = list[j];
+                    list[j] = m;
+                }
+            }
+            if (random != null && ply < SHUFFLE_PLIES) {
+                // 能出完手牌的出牌保持在最前
+                int first = count > 0 && list[0] == hand ? 1 : 0;
+                for (int i = count - 1; i > first; i--) {
+                    int j = first + random.nextInt(i - first + 1);
+                    long m = list[i];
+                    list[i] = list[j];
+                    list[j] = m;
+                }
+            }
+            if (position.canPass()) {
+                list[count++] = SearchPosition.PASS;
+            }
+            if (hashMove != TranspositionTable.NO_MOVE) {
+                for (int i = 1; i < count; i++) {
+                    if (list[i] == hashMove) {
+                        System.arraycopy(list, 0, list, 1, i);
+                        list[0] = hashMove;
+                        break;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * 搜索被中止（超出节点数上限或其他线程已给出结果），不生成堆栈信息
+     */
+    @SuppressWarnings("serial") // 只在搜索内部抛出与捕获，不会序列化
+    private static final class Aborted extends RuntimeException {
+        static final Aborted INSTANCE = new Aborted();
+
+        private Aborted() {
+            super(null, null, false, false);
+        }
+    }
+}
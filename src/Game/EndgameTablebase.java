@@ -0,0 +1,572 @@
+package Game;
+
+import Rules.MoveGenerator;
+import Rules.Rule;
+import cards.CombinatorialIndex;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.CRC32;
+
+/**
+ * 短手牌残局库
+ * 四家手牌都很少（每家 1..maxHand 张、合计不超过 maxTotal 张）且有人领出时，
+ * 预先算好每一家在偏执假设下（其余三家联手）能否保证最先出完，查询为常数时间
+ * 本游戏有人出完即结束，因此残局中四家都还有牌
+ *
+ * 每家不超过4张时只能出单张、对子、三张，胜负只取决于：
+ *   - 场上的牌按规则的单张大小排成一列后，每张牌归谁
+ *   - 相邻的牌是否同一点数（排列按点数分块，每块1..4张）
+ * 具体是哪个点数、哪个花色无关，因此把局面规范化为“点数分块 + 每张牌的归属”，
+ * 领出者旋转为0号座位，用组合数索引（CombinatorialIndex）编号：
+ *   索引 = 分块位图 * 归属组合数 + 归属序号，归属序号依次为0、1、2号座位在剩余位置中的组合序号
+ * 每项4位，第 p 位为（相对领出者的）p 号座位能否保证最先出完
+ *
+ * 生成：按总张数从小到大逐层计算，对每个局面搜索一墩（领出到下一次有人领出），
+ * 墩结束后的局面张数更少，直接查前面各层的结果；同时求四家的结果（出牌者取或，其余取与）
+ * 同一层的局面互不依赖，在 ForkJoinPool 公共池中并行计算
+ *
+ * 文件格式（小端），以只读方式内存映射：
+ *   0  int   魔数 "CDEG"
+ *   4  int   文件格式版本
+ *   8  int   每家最多张数
+ *   12 int   合计最多张数
+ *   16 long  规则指纹（全部单张、对子、三张的出牌键的散列）
+ *   24 long  表项字节数
+ *   32 long  表项数据的 CRC32
+ *   40 long  保留
+ *   48 byte[] 表项，每字节两项（低4位为偶数下标）
+ */
+public final class EndgameTablebase {
+    public static final int MAX_HAND = 4;           // 再多就可能组成五张牌型
+    private static final int PLAYERS = 4;
+    private static final int CARDS = 52;
+    private static final int FACES = 13;
+    private static final int MAX_PLIES = 64;
+    private static final int LEAF_SIZE = 1 << 14;   // 每个子任务计算的局面数（偶数，子任务不会写同一个字节）
+
+    private static final int MAGIC = 0x43444547;    // "CDEG"
+    private static final int FILE_VERSION = 1;
+    private static final int HEADER_SIZE = 48;
+
+    private final Rule rule;
+    private final int maxHand;
+    private final int maxTotal;
+    private final long fingerprint;
+    private final long[] offsets = new long[625];   // 张数组合 (s0..s3) -> 起始下标
+    private final long entryCount;
+
+    // 规则顺序：orderOf[牌] 为单张从小到大的位置，blockCards[b][j] 为第 b 小的点数中第 j 小的牌
+    private final int[] orderOf = new int[CARDS];
+    private final int[] cardAt = new int[CARDS];
+    private final int[][] blockCards = new int[FACES][4];
+
+    private final byte[] entries;          // 构建时的表；映射文件时为 null
+    private final MemorySegment mapped;    // 映射文件中的表项部分；构建时为 null
+
+    private EndgameTablebase(Rule rule, int maxHand, int maxTotal, byte[] entries, MemorySegment mapped) {
+        if (maxHand < 1 || maxHand > MAX_HAND || maxTotal < PLAYERS || maxTotal > MAX_HAND * PLAYERS) {
+            throw new IllegalArgumentException("Unsupported tablebase size: " + maxHand + " per hand, " + maxTotal + " total");
+        }
+        this.rule = rule;
+        this.maxHand = maxHand;
+        this.maxTotal = maxTotal;
+        this.fingerprint = fingerprint(rule);
+
+        // 按单张出牌键排序，并检查同一点数的牌在顺序中相邻
+        long[] order = new long[CARDS];
+        for (int card = 0; card < CARDS; card++) {
+            order[card] = (rule.playKey(1L << card) & 0xFFFF) << 8 | card;
+        }
+        Arrays.sort(order);
+        for (int i = 0; i < CARDS; i++) {
+            cardAt[i] = (int) (order[i] & 0xFF);
+            orderOf[cardAt[i]] = i;
+        }
+        for (int i = 0; i < CARDS; i++) {
+            if (cardAt[i] % FACES != cardAt[i / 4 * 4] % FACES) {
+                throw new IllegalArgumentException("Rule " + rule.getRuleName() + " does not rank cards face by face");
+            }
+            blockCards[i / 4][i % 4] = cardAt[i];
+        }
+
+        // 各张数组合的起始下标，按总张数分层；每段从偶数下标开始
+        long next = 0;
+        for (int total = PLAYERS; total <= maxTotal; total++) {
+            for (int code = 0; code < offsets.length; code++) {
+                int[] sizes = sizesOf(code);
+                if (sizes != null && sizes[0] + sizes[1] + sizes[2] + sizes[3] == total) {
+                    offsets[code] = next;
+                    next += (sectionSize(sizes) + 1) & ~1L;
+                }
+            }
+        }
+        this.entryCount = next;
+        if (entries == null && mapped == null) {
+            if (next / 2 > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Tablebase too large to build in memory: " + next + " entries");
+            }
+            entries = new byte[(int) (next / 2)];
+        }
+        this.entries = entries;
+        this.mapped = mapped;
+    }
+
+    /**
+     * 在 ForkJoinPool 公共池中并行生成残局库
+     * @param maxHand 每家最多张数（1..4）
+     * @param maxTotal 四家合计最多张数
+     */
+    public static EndgameTablebase build(Rule rule, int maxHand, int maxTotal) {
+        EndgameTablebase tablebase = new EndgameTablebase(rule, maxHand, maxTotal, null, null);
+        for (int total = PLAYERS; total <= maxTotal; total++) {
+            List<BuildTask> tasks = new ArrayList<>();
+            for (int code = 0; code < tablebase.offsets.length; code++) {
+                int[] sizes = tablebase.sizesOf(code);
+                if (sizes != null && sizes[0] + sizes[1] + sizes[2] + sizes[3] == total) {
+                    tasks.add(tablebase.new BuildTask(sizes, 0, sectionSize(sizes)));
+                }
+            }
+            ForkJoinPool.commonPool().invoke(new LayerTask(tasks));
+        }
+        return tablebase;
+    }
+
+    public Rule getRule() {
+        return rule;
+    }
+
+    public int getMaxHand() {
+        return maxHand;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * 表项总数（包括不对应任何局面的空项）
+     */
+    public long size() {
+        return entryCount;
+    }
+
+    /**
+     * 是否来自内存映射的文件
+     */
+    public boolean isMapped() {
+        return mapped != null;
+    }
+
+    /**
+     * 局面是否在残局库范围内：有人领出（不是首轮），四家都有牌且张数在范围内
+     */
+    public boolean covers(SearchPosition position) {
+        if (!position.isLeading() || position.isOpening() || position.isGameOver()) {
+            return false;
+        }
+        int total = 0;
+        for (int p = 0; p < PLAYERS; p++) {
+            int size = Long.bitCount(position.getHand(p));
+            if (size > maxHand) {
+                return false;
+            }
+            total += size;
+        }
+        return total <= maxTotal;
+    }
+
+    /**
+     * 查询某家能否在其余三家联手时保证最先出完
+     * @return DoubleDummySolver.WIN / LOSS；不在范围内时为 UNKNOWN
+     */
+    public int probe(SearchPosition position, int player) {
+        if (!covers(position)) {
+            return DoubleDummySolver.UNKNOWN;
+        }
+        int leader = position.getToMove();
+        int bits = lookup(position, leader);
+        return (bits >>> ((player - leader) & 3) & 1) != 0 ? DoubleDummySolver.WIN : DoubleDummySolver.LOSS;
+    }
+
+    /**
+     * 规范化并查表，返回相对领出者的四位结果
+     * 每次搜索到覆盖范围内的领出局面都会调用，只用局部变量，不创建对象
+     */
+    private int lookup(SearchPosition position, int leader) {
+        // 每家（相对领出者）的牌按规则顺序排列后的位图
+        long o0 = orderedMask(position.getHand(leader));
+        long o1 = orderedMask(position.getHand((leader + 1) & 3));
+        long o2 = orderedMask(position.getHand((leader + 2) & 3));
+        long o3 = orderedMask(position.getHand((leader + 3) & 3));
+        long ordered = o0 | o1 | o2 | o3;
+        int n = Long.bitCount(ordered);
+
+        // 分块位图：第 i 位表示第 i 张与第 i+1 张点数不同
+        long blocks = 0L;
+        int i = 0;
+        int previous = -1;
+        for (long bits = ordered; bits != 0; bits &= bits - 1, i++) {
+            int face = Long.numberOfTrailingZeros(bits) / 4;
+            if (previous >= 0 && face != previous) {
+                blocks |= 1L << (i - 1);
+            }
+            previous = face;
+        }
+
+        long l0 = Long.compress(o0, ordered);
+        long l1 = Long.compress(o1, ordered);
+        long l2 = Long.compress(o2, ordered);
+        int s0 = Long.bitCount(l0);
+        int s1 = Long.bitCount(l1);
+        int s2 = Long.bitCount(l2);
+        int s3 = Long.bitCount(o3);
+        long index = offsets[codeOf(s0, s1, s2, s3)] + blocks * ownerCount(s0, s1, s2, s3)
+                + ownerRank(l0, l1, l2, n);
+        return get(index);
+    }
+
+    /**
+     * 手牌换成按规则顺序编号的位图
+     */
+    private long orderedMask(long hand) {
+        long ordered = 0L;
+        for (long bits = hand; bits != 0; bits &= bits - 1) {
+            ordered |= 1L << orderOf[Long.numberOfTrailingZeros(bits)];
+        }
+        return ordered;
+    }
+
+    private int get(long index) {
+        int b = entries != null ? entries[(int) (index >>> 1)] : mapped.get(ValueLayout.JAVA_BYTE, index >>> 1);
+        return (b >>> ((index & 1) << 2)) & 0xF;
+    }
+
+    /**
+     * 各家归属的序号：0号座位在 n 个位置中的组合序号，1号座位在其余位置中的序号，2号座位同理，
+     * 3号座位取剩下的位置
+     * @param l0 0号座位在 n 个位置中的局部位图，l1、l2 同理
+     */
+    private static long ownerRank(long l0, long l1, long l2, int n) {
+        long free = (1L << n) - 1;
+        long rank = CombinatorialIndex.rank(l0);
+        free &= ~l0;
+        rank = rank * CombinatorialIndex.binomial(Long.bitCount(free), Long.bitCount(l1))
+                + CombinatorialIndex.rank(Long.compress(l1, free));
+        free &= ~l1;
+        return rank * CombinatorialIndex.binomial(Long.bitCount(free), Long.bitCount(l2))
+                + CombinatorialIndex.rank(Long.compress(l2, free));
+    }
+
+    /**
+     * 给定各家张数时归属的种数（多项式系数）
+     */
+    private static long ownerCount(int[] sizes) {
+        return ownerCount(sizes[0], sizes[1], sizes[2], sizes[3]);
+    }
+
+    private static long ownerCount(int s0, int s1, int s2, int s3) {
+        int n = s0 + s1 + s2 + s3;
+        return CombinatorialIndex.binomial(n, s0) * CombinatorialIndex.binomial(n - s0, s1)
+                * CombinatorialIndex.binomial(s2 + s3, s2);
+    }
+
+    /**
+     * 一种张数组合的项数：分块位图 2^(n-1) 种乘以归属种数
+     */
+    private static long sectionSize(int[] sizes) {
+        int n = sizes[0] + sizes[1] + sizes[2] + sizes[3];
+        return (1L << (n - 1)) * ownerCount(sizes);
+    }
+
+    private static int codeOf(int[] sizes) {
+        return codeOf(sizes[0], sizes[1], sizes[2], sizes[3]);
+    }
+
+    private static int codeOf(int s0, int s1, int s2, int s3) {
+        return ((s0 * 5 + s1) * 5 + s2) * 5 + s3;
+    }
+
+    /**
+     * 张数组合编号还原为各家张数，不在范围内时返回 null
+     */
+    private int[] sizesOf(int code) {
+        int[] sizes = {code / 125, code / 25 % 5, code / 5 % 5, code % 5};
+        int total = 0;
+        for (int size : sizes) {
+            if (size < 1 || size > maxHand) {
+                return null;
+            }
+            total += size;
+        }
+        return total <= maxTotal ? sizes : null;
+    }
+
+    /**
+     * 规则指纹：全部单张、对子、三张的出牌键的散列，防止误用其他规则生成的文件
+     */
+    private static long fingerprint(Rule rule) {
+        long h = 0x43444547L;
+        for (int a = 0; a < CARDS; a++) {
+            h = h * 0x9E3779B97F4A7C15L + rule.playKey(1L << a);
+            for (int b = a + 1; b < CARDS; b++) {
+                if (a % FACES == b % FACES) {
+                    h = h * 0x9E3779B97F4A7C15L + rule.playKey(1L << a | 1L << b);
+                    for (int c = b + 1; c < CARDS; c++) {
+                        if (a % FACES == c % FACES) {
+                            h = h * 0x9E3779B97F4A7C15L + rule.playKey(1L << a | 1L << b | 1L << c);
+                        }
+                    }
+                }
+            }
+        }
+        return h;
+    }
+
+    /**
+     * 把残局库写入文件：先写临时文件再原子替换，其他进程不会读到写了一半的文件
+     */
+    public void save(Path file) throws IOException {
+        ByteBuffer payload = ByteBuffer.wrap(entries);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(FILE_VERSION).putInt(maxHand).putInt(maxTotal)
+                .putLong(fingerprint).putLong(entries.length).putLong(crc.getValue()).putLong(0L);
+        header.flip();
+
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (payload.hasRemaining()) {
+                channel.write(payload);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 以只读方式内存映射文件中的残局库，映射的内存随返回对象一起被回收
+     * @param rule 残局库对应的规则，与文件中的规则指纹不符时视为过期
+     * @return 映射的残局库；文件不存在、版本或规则不符、校验和不一致时返回 null
+     */
+    public static EndgameTablebase load(Path file, Rule rule) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), Arena.ofAuto());
+            ValueLayout.OfInt headerInt = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+            ValueLayout.OfLong headerLong = ValueLayout.JAVA_LONG.withOrder(ByteOrder.LITTLE_ENDIAN);
+            int maxHand = segment.get(headerInt, 8);
+            int maxTotal = segment.get(headerInt, 12);
+            if (segment.get(headerInt, 0) != MAGIC
+                    || segment.get(headerInt, 4) != FILE_VERSION
+                    || maxHand < 1 || maxHand > MAX_HAND || maxTotal < PLAYERS || maxTotal > MAX_HAND * PLAYERS
+                    || segment.get(headerLong, 16) != fingerprint(rule)
+                    || segment.get(headerLong, 24) != channel.size() - HEADER_SIZE) {
+                return null;
+            }
+            MemorySegment payload = segment.asSlice(HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            crc.update(payload.asByteBuffer());
+            if (crc.getValue() != segment.get(headerLong, 32)) {
+                return null;
+            }
+            EndgameTablebase tablebase = new EndgameTablebase(rule, maxHand, maxTotal, null, payload);
+            return tablebase.entryCount / 2 == payload.byteSize() ? tablebase : null;
+        }
+    }
+
+    /**
+     * 优先映射文件中的残局库；文件缺失或过期时重新生成，并尽量写回文件供之后的进程使用
+     */
+    public static EndgameTablebase loadOrBuild(Path file, Rule rule, int maxHand, int maxTotal) {
+        try {
+            EndgameTablebase tablebase = load(file, rule);
+            if (tablebase != null && tablebase.maxHand == maxHand && tablebase.maxTotal == maxTotal) {
+                return tablebase;
+            }
+        } catch (IOException e) {
+            System.out.println("警告：读取残局库文件失败，改为重新生成：" + e.getMessage());
+        }
+        EndgameTablebase tablebase = build(rule, maxHand, maxTotal);
+        try {
+            tablebase.save(file);
+        } catch (IOException e) {
+            System.out.println("警告：写入残局库文件失败：" + e.getMessage());
+        }
+        return tablebase;
+    }
+
+    /**
+     * 依次执行同一层的各个子任务并等待全部结束
+     */
+    @SuppressWarnings("serial") // 任务只在进程内使用，不会序列化
+    private static final class LayerTask extends RecursiveAction {
+        private final List<BuildTask> tasks;
+
+        LayerTask(List<BuildTask> tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(tasks);
+        }
+    }
+
+    /**
+     * 计算一种张数组合中 [from, to) 的局面
+     */
+    @SuppressWarnings("serial") // 任务只在进程内使用，不会序列化
+    private final class BuildTask extends RecursiveAction {
+        private final int[] sizes;
+        private final long from;
+        private final long to;
+        private final long owners;
+        private final MoveGenerator[] generators = new MoveGenerator[MAX_PLIES];
+
+        BuildTask(int[] sizes, long from, long to) {
+            this.sizes = sizes;
+            this.from = from;
+            this.to = to;
+            this.owners = ownerCount(sizes);
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_SIZE) {
+                long mid = (from + to) >>> 1 & ~1L;
+                invokeAll(new BuildTask(sizes, from, mid), new BuildTask(sizes, mid, to));
+                return;
+            }
+            int n = sizes[0] + sizes[1] + sizes[2] + sizes[3];
+            long base = offsets[codeOf(sizes)];
+            long[] hands = new long[PLAYERS];
+            for (long index = from; index < to; index += 2) {
+                int low = solve(index, n, hands);
+                int high = index + 1 < to ? solve(index + 1, n, hands) : 0;
+                entries[(int) ((base + index) >>> 1)] = (byte) (low | high << 4);
+            }
+        }
+
+        /**
+         * 还原局面并搜索一墩；分块中有超过4张的块或超过13块时不对应任何局面，返回0
+         */
+        private int solve(long index, int n, long[] hands) {
+            long blocks = index / owners;
+            long rank = index % owners;
+
+            // 还原各家在 n 个位置中的归属（与 ownerRank 相反的顺序）
+            long[] local = new long[PLAYERS];
+            long[] radix = new long[PLAYERS - 1];
+            int remaining = n;
+            for (int seat = 0; seat < PLAYERS - 1; seat++) {
+                radix[seat] = CombinatorialIndex.binomial(remaining, sizes[seat]);
+                remaining -= sizes[seat];
+            }
+            long[] ranks = new long[PLAYERS - 1];
+            for (int seat = PLAYERS - 2; seat >= 0; seat--) {
+                ranks[seat] = rank % radix[seat];
+                rank /= radix[seat];
+            }
+            long open = (1L << n) - 1;
+            for (int seat = 0; seat < PLAYERS - 1; seat++) {
+                local[seat] = Long.expand(CombinatorialIndex.unrank(ranks[seat], sizes[seat]), open);
+                open &= ~local[seat];
+            }
+            local[PLAYERS - 1] = open;
+
+            // 按分块把位置换成具体的牌：第 b 块用第 b 小的点数，块内第 j 张用该点数第 j 小的牌
+            Arrays.fill(hands, 0L);
+            int block = 0;
+            int inBlock = 0;
+            for (int i = 0; i < n; i++) {
+                if (inBlock == 4 || block == FACES) {
+                    return 0;
+                }
+                int card = blockCards[block][inBlock];
+                for (int seat = 0; seat < PLAYERS; seat++) {
+                    if ((local[seat] >>> i & 1) != 0) {
+                        hands[seat] |= 1L << card;
+                    }
+                }
+                if ((blocks >>> i & 1) != 0) {
+                    block++;
+                    inBlock = 0;
+                } else {
+                    inBlock++;
+                }
+            }
+            return search(new SearchPosition(hands, 0, 0L, 0), 0);
+        }
+
+        /**
+         * 搜索到本墩结束，同时求四家的结果：第 p 位为 p 号座位能否保证最先出完
+         * 出牌者那一位取各出牌结果的或，其余三位取与
+         */
+        private int search(SearchPosition position, int ply) {
+            if (position.isGameOver()) {
+                return 1 << position.getWinner();
+            }
+            if (ply > 0 && position.isLeading()) {
+                int leader = position.getToMove();
+                int bits = lookup(position, leader);
+                return (bits << leader | bits >>> (PLAYERS - leader)) & 0xF;
+            }
+            MoveGenerator generator = generators[ply];
+            if (generator == null) {
+                generator = new MoveGenerator(rule);
+                generators[ply] = generator;
+            }
+            int mover = position.getToMove();
+            int self = 1 << mover;
+            int any = 0;
+            int all = 0xF;
+            int count = position.generateMoves(generator);
+            long[] moves = new long[count + 1];
+            for (int i = 0; i < count; i++) {
+                moves[i] = generator.moveAt(i);
+            }
+            if (position.canPass()) {
+                moves[count++] = SearchPosition.PASS;
+            }
+            for (int i = 0; i < count && !((any & self) != 0 && (all & ~self) == 0); i++) {
+                position.play(moves[i]);
+                int value = search(position, ply + 1);
+                position.undo();
+                any |= value;
+                all &= value;
+            }
+            return (any & self) | (all & ~self);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package Game;
+
+import Rules.Rule;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+/**
+ * 残局库的性能测试
+ * 生成（或映射已有文件中的）残局库，报告生成耗时、文件大小与映射后的查询耗时，
+ * 再用双明手求解器分别在不用与使用残局库时求解同一批短手牌残局，结果必须一致
+ * 运行：java Game.EndgameTablebaseBenchmark [north|south] [每家最多张数] [合计最多张数] [文件]
+ */
+public class EndgameTablebaseBenchmark {
+    public static void main(String[] args) throws Exception {
+        Rule rule = args.length > 0 && args[0].equals("south")
+                ? Game.ruleOf(Game.RULE_SOUTH) : Game.ruleOf(Game.RULE_NORTH);
+        int maxHand = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int maxTotal = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        Path file = Paths.get(args.length > 3 ? args[3]
+                : "endgame-" + (rule == Game.ruleOf(Game.RULE_SOUTH) ? "south" : "north") + "-" + maxHand + "-" + maxTotal + ".bin");
+
+        long start = System.nanoTime();
+        EndgameTablebase tablebase = EndgameTablebase.load(file, rule);
+        if (tablebase == null || tablebase.getMaxHand() != maxHand || tablebase.getMaxTotal() != maxTotal) {
+            tablebase = EndgameTablebase.build(rule, maxHand, maxTotal);
+            System.out.printf("%s  生成 %,d 项  %.1f 秒%n", rule.getRuleName(), tablebase.size(),
+                    (System.nanoTime() - start) / 1e9);
+            tablebase.save(file);
+            tablebase = EndgameTablebase.load(file, rule);
+        }
+        System.out.printf("%s  文件 %s  %,d 字节  映射 %b%n", rule.getRuleName(), file, Files.size(file),
+                tablebase.isMapped());
+
+        // 随机短手牌残局：每家 1..maxHand 张，合计不超过 maxTotal
+        SplittableRandom random = new SplittableRandom(2024L);
+        int positions = 2000;
+        SearchPosition[] endgames = new SearchPosition[positions];
+        for (int i = 0; i < positions; i++) {
+            int[] sizes = new int[4];
+            int total;
+            do {
+                total = 0;
+                for (int p = 0; p < 4; p++) {
+                    sizes[p] = 1 + random.nextInt(maxHand);
+                    total += sizes[p];
+                }
+            } while (total > maxTotal);
+            long deck = (1L << 52) - 1;
+            long[] hands = new long[4];
+            for (int p = 0; p < 4; p++) {
+                while (Long.bitCount(hands[p]) < sizes[p]) {
+                    long card = 1L << random.nextInt(52);
+                    if ((deck & card) != 0) {
+                        deck &= ~card;
+                        hands[p] |= card;
+                    }
+                }
+            }
+            int leader = random.nextInt(4);
+            endgames[i] = new SearchPosition(hands, leader, 0L, leader);
+        }
+
+        long sum = 0;
+        start = System.nanoTime();
+        for (int round = 0; round < 100; round++) {
+            for (SearchPosition endgame : endgames) {
+                sum += tablebase.probe(endgame, round & 3);
+            }
+        }
+        System.out.printf("查询 %.0f ns/次  (%d)%n", (System.nanoTime() - start) / (100.0 * positions), sum);
+
+        // 残局库查表与搜索的结果必须一致
+        DoubleDummySolver plain = new DoubleDummySolver(rule, 1, 14);
+        DoubleDummySolver probing = new DoubleDummySolver(rule, 1, 14);
+        probing.setTablebase(tablebase);
+        for (DoubleDummySolver solver : new DoubleDummySolver[] {plain, probing}) {
+            long nodes = 0;
+            int mismatches = 0;
+            start = System.nanoTime();
+            for (SearchPosition endgame : endgames) {
+                solver.clear();
+                int result = solver.solve(endgame);
+                nodes += solver.getLastNodes();
+                if (result != tablebase.probe(endgame, endgame.getToMove())) {
+                    mismatches++;
+                }
+            }
+            System.out.printf("%s  %.1f us/局  %,d 节点  与残局库不一致 %d%n", solver == plain ? "搜索" : "搜索+残局库",
+                    (System.nanoTime() - start) / 1e3 / positions, nodes, mismatches);
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package Game;
 
+import Players.HeuristicStrategy;
 import Players.Player;
+import Players.Strategy;
 import cards.Card;
+import cards.CardSet;
 import cards.Deck;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -24,6 +27,11 @@ public class Game {
     // 游戏规则常量
     public static final int RULE_NORTH = 1; // 北方规则
     public static final int RULE_SOUTH = 2; // 南方规则
+    public static final int RULE_CUSTOM = 3; // 自定义规则（如由 RuleSpec 编译的房规）
+    
+    // AI难度
+    public static final int AI_NORMAL = 1; // 普通：启发式策略，按手牌最优拆分领出
+    public static final int AI_HARD = 2;   // 困难：多线程 ISMCTS 搜索
     
     private final List<Player> players;       // 玩家列表
     private Deck deck;                        // 牌堆
@@ -39,17 +47,34 @@ public class Game {
      * 创建单人模式游戏（1个玩家对战3个AI）
      */
     public static Game createSinglePlayerGame(String playerName, int ruleType) {
+        return createSinglePlayerGame(playerName, ruleOf(ruleType));
+    }
+    
+    /**
+     * 创建单人模式游戏，并为每个AI座位指定难度
+     * @param aiLevels 依次为1~3号AI座位的难度（AI_NORMAL 或 AI_HARD），不足3个时最后一个沿用到其余座位
+     */
+    public static Game createSinglePlayerGame(String playerName, int ruleType, int... aiLevels) {
+        return createSinglePlayerGame(playerName, ruleOf(ruleType), aiLevels);
+    }
+    
+    /**
+     * 使用指定规则对象创建单人模式游戏，例如 RuleSpec 编译得到的房规
+     * @param aiLevels 依次为1~3号AI座位的难度（AI_NORMAL 或 AI_HARD），不足3个时最后一个沿用到其余座位，省略时全部为普通难度
+     */
+    public static Game createSinglePlayerGame(String playerName, Rule rule, int... aiLevels) {
         List<String> playerNames = new ArrayList<>();
         playerNames.add(playerName);  // 人类玩家
         playerNames.add("AI玩家1");   // AI玩家
         playerNames.add("AI玩家2");   // AI玩家
         playerNames.add("AI玩家3");   // AI玩家
         
-        Game game = new Game(playerNames, MODE_SINGLE_PLAYER, ruleType);
+        Game game = new Game(playerNames, MODE_SINGLE_PLAYER, rule);
         
         // 设置AI玩家
         for (int i = 1; i < game.players.size(); i++) {
-            game.setPlayerAsAI(i);
+            int level = aiLevels.length == 0 ? AI_NORMAL : aiLevels[Math.min(i - 1, aiLevels.length - 1)];
+            game.setPlayerAsAI(i, game.createStrategy(level));
         }
         
         return game;
@@ -59,17 +84,38 @@ public class Game {
      * 创建多人联机模式游戏（4个人类玩家）
      */
     public static Game createMultiplayerGame(List<String> playerNames, int ruleType) {
+        return createMultiplayerGame(playerNames, ruleOf(ruleType));
+    }
+    
+    /**
+     * 使用指定规则对象创建多人联机模式游戏
+     */
+    public static Game createMultiplayerGame(List<String> playerNames, Rule rule) {
         if (playerNames.size() != 4) {
             throw new IllegalArgumentException("多人模式需要恰好4个玩家");
         }
         
-        return new Game(playerNames, MODE_MULTIPLAYER, ruleType);
+        return new Game(playerNames, MODE_MULTIPLAYER, rule);
+    }
+    
+    /**
+     * 根据规则类型常量获取规则对象
+     */
+    public static Rule ruleOf(int ruleType) {
+        switch (ruleType) {
+            case RULE_NORTH:
+                return NorthRule.getInstance();
+            case RULE_SOUTH:
+                return SouthRule.getInstance();
+            default:
+                throw new IllegalArgumentException("无效的规则类型：" + ruleType);
+        }
     }
     
     /**
      * 构造函数，创建游戏并初始化玩家
      */
-    private Game(List<String> playerNames, int gameMode, int ruleType) {
+    private Game(List<String> playerNames, int gameMode, Rule gameRule) {
         // 初始化玩家列表
         this.players = new ArrayList<>();
         for (String name : playerNames) {
@@ -79,31 +125,48 @@ public class Game {
         this.gameMode = gameMode;
         this.deck = new Deck();
         
-        // 根据规则类型设置游戏规则
-        switch (ruleType) {
-            case RULE_NORTH:
-                this.gameRule = NorthRule.getInstance();
-                break;
-            case RULE_SOUTH:
-                this.gameRule = SouthRule.getInstance();
-                break;
-            default:
-                throw new IllegalArgumentException("无效的规则类型：" + ruleType);
+        if (gameRule == null) {
+            throw new IllegalArgumentException("游戏规则不能为空");
         }
+        this.gameRule = gameRule;
         
         // 初始化游戏管理器
-        this.stateManager = new GameStateManager(players);
+        this.stateManager = new GameStateManager(players, gameRule);
         this.playManager = new GamePlayManager(gameRule, stateManager);
         this.displayManager = new GameDisplayManager(stateManager);
     }
     
     /**
-     * 将指定索引的玩家设置为AI
+     * 按难度创建本局规则下的AI出牌策略
+     */
+    public Strategy createStrategy(int aiLevel) {
+        switch (aiLevel) {
+            case AI_NORMAL:
+                return new HeuristicStrategy(gameRule, true);
+            case AI_HARD:
+                return new IsmctsStrategy(gameRule);
+            default:
+                throw new IllegalArgumentException("无效的AI难度：" + aiLevel);
+        }
+    }
+    
+    /**
+     * 将指定索引的玩家设置为AI，默认使用普通难度（按拆分领出的启发式策略）
      */
     public void setPlayerAsAI(int playerIndex) {
+        setPlayerAsAI(playerIndex, createStrategy(AI_NORMAL));
+    }
+    
+    /**
+     * 将指定索引的玩家设置为使用指定策略的AI
+     * @param strategy 出牌策略，为null时使用 AIStrategy 的简单策略
+     */
+    public void setPlayerAsAI(int playerIndex, Strategy strategy) {
         if (playerIndex >= 0 && playerIndex < players.size()) {
             Player currentPlayer = players.get(playerIndex);
-            players.set(playerIndex, new Player(currentPlayer.getName(), true));
+            Player aiPlayer = new Player(currentPlayer.getName(), true);
+            aiPlayer.setStrategy(strategy);
+            players.set(playerIndex, aiPlayer);
         }
     }
     
@@ -125,14 +188,28 @@ public class Game {
      * 初始化游戏，包括洗牌和发牌
      */
     public void initGame() {
+        initGame(new Deck());
+    }
+    
+    /**
+     * 使用指定种子初始化游戏，相同种子得到相同的发牌，便于回归测试复现牌局
+     * @param seed 洗牌种子
+     */
+    public void initGame(long seed) {
+        initGame(new Deck(seed));
+    }
+    
+    /**
+     * 用已洗好的牌堆初始化游戏
+     */
+    private void initGame(Deck newDeck) {
         // 清空所有玩家的手牌
         for (Player player : players) {
             player.clearHand();
         }
         
-        // 创建一副新牌并洗牌
-        this.deck = new Deck();
-        deck.shuffle();
+        // 使用新的一副已洗好的牌
+        this.deck = newDeck;
         
         // 发牌（每人13张牌）
         int cardsPerPlayer = 13;
@@ -145,16 +222,11 @@ public class Game {
             System.out.println("调整为每位玩家发" + cardsPerPlayer + "张牌");
         }
         
-        // 发牌
-        for (int i = 0; i < cardsPerPlayer; i++) {
-            for (Player player : players) {
-                if (deck.cardsRemaining() > 0) {
-                    player.drawCard(deck);
-                } else {
-                    System.out.println("牌堆已空，停止发牌");
-                    break;
-                }
-            }
+        // 发牌：一次调用发出所有玩家的手牌位图
+        long[] hands = new long[players.size()];
+        deck.dealHands(hands, cardsPerPlayer);
+        for (int i = 0; i < players.size(); i++) {
+            players.get(i).receiveCards(CardSet.of(hands[i]));
         }
         
         // 对所有玩家的手牌进行排序
@@ -212,6 +284,18 @@ public class Game {
         displayManager.displayGameEnd();
     }
     
+    /**
+     * 当前牌局的完整局面（四家手牌都公开），供双明手求解器标注牌局与离线分析
+     */
+    public SearchPosition getSearchPosition() {
+        long[] hands = new long[players.size()];
+        for (int i = 0; i < hands.length; i++) {
+            hands[i] = players.get(i).getHandMask();
+        }
+        return new SearchPosition(hands, stateManager.getCurrentPlayerIndex(),
+                stateManager.getLastPlayedMask(), stateManager.getLastPlayerIndex());
+    }
+    
     /**
      * 获取游戏状态
      */
@@ -231,13 +315,23 @@ public class Game {
      * 获取当前游戏规则类型
      */
     public int getRuleType() {
-        return gameRule instanceof NorthRule ? RULE_NORTH : RULE_SOUTH;
+        if (gameRule instanceof NorthRule) {
+            return RULE_NORTH;
+        }
+        return gameRule instanceof SouthRule ? RULE_SOUTH : RULE_CUSTOM;
+    }
+    
+    /**
+     * 获取当前游戏规则
+     */
+    public Rule getGameRule() {
+        return gameRule;
     }
     
     /**
      * 获取当前游戏规则的名称
      */
     public String getRuleName() {
-        return gameRule instanceof NorthRule ? "北方规则" : "南方规则";
+        return gameRule.getRuleName();
     }
 }
@@ -1,8 +1,10 @@
 package Game;
 
 import Players.Player;
+import Rules.PlayKey;
 import Rules.Rule;
 import cards.Card;
+import cards.CardSet;
 import java.util.List;
 
 /**
@@ -13,6 +15,10 @@ public class GamePlayManager {
     private final Rule gameRule;
     private final GameStateManager stateManager;
 
+    // 上一手牌的出牌键缓存：上一手牌不变时，每次校验只需计算本次出牌的键
+    private List<Card> keyedLastCards;
+    private long lastCardsKey = PlayKey.INVALID;
+
     public GamePlayManager(Rule gameRule, GameStateManager stateManager) {
         this.gameRule = gameRule;
         this.stateManager = stateManager;
@@ -27,6 +33,8 @@ public class GamePlayManager {
         // 更新玩家状态
         player.setLastPlayerIndex(stateManager.getLastPlayerIndex());
         player.setCurrentPlayerIndex(stateManager.getCurrentPlayerIndex());
+        player.setGameRule(gameRule);
+        player.setTable(stateManager);
 
         // 获取上一手牌
         List<Card> lastCards = stateManager.getLastPlayedCards();
@@ -42,7 +50,7 @@ public class GamePlayManager {
 
         // 如果出牌合法，从玩家手牌中移除这些牌
         if (playedCards != null && !playedCards.isEmpty()) {
-            player.removeCards(playedCards);
+            player.removeCards(CardSet.fromList(playedCards));
         }
 
         return playedCards;
@@ -52,8 +60,48 @@ public class GamePlayManager {
      * 判断当前出牌是否有效
      */
     private boolean isValidPlay(List<Card> cards, List<Card> lastCards, Player player) {
+        CardSet played = cards == null ? new CardSet() : CardSet.fromList(cards);
+
+        // 同一张牌不能重复出
+        if (cards != null && played.size() != cards.size()) {
+            return false;
+        }
+        return isValidPlay(played, lastCards != null, lastCardsKey(lastCards));
+    }
+
+    /**
+     * 上一手牌的出牌键，上一手牌对象不变时直接返回缓存
+     */
+    private long lastCardsKey(List<Card> lastCards) {
+        if (lastCards == null) {
+            return PlayKey.INVALID;
+        }
+        if (lastCards != keyedLastCards) {
+            keyedLastCards = lastCards;
+            lastCardsKey = gameRule.playKey(lastCards);
+        }
+        return lastCardsKey;
+    }
+
+    /**
+     * 判断当前出牌是否有效（牌集合版本）
+     * @param cards 出的牌，空集合表示过牌
+     * @param lastCards 上一手牌，为null表示这是第一手牌
+     * @param player 当前玩家
+     */
+    public boolean isValidPlay(CardSet cards, CardSet lastCards, Player player) {
+        return isValidPlay(cards, lastCards != null, lastCards == null ? PlayKey.INVALID : gameRule.playKey(lastCards));
+    }
+
+    /**
+     * 判断当前出牌是否有效
+     * @param cards 出的牌，空集合表示过牌
+     * @param hasLastCards 是否有上一手牌
+     * @param lastKey 上一手牌的出牌键
+     */
+    private boolean isValidPlay(CardSet cards, boolean hasLastCards, long lastKey) {
         // 如果没有出牌，始终有效（表示过）
-        if (cards == null || cards.isEmpty()) {
+        if (cards.isEmpty()) {
             // 如果是第一个出牌的玩家，不能过牌
             if (stateManager.getLastPlayerIndex() == -1) {
                 System.out.println("你是第一个出牌的玩家，必须出牌");
@@ -69,23 +117,16 @@ public class GamePlayManager {
             return true;
         }
 
-        // 判断当前出的牌是否是有效牌型
-        if (!gameRule.isValidPattern(cards)) {
+        // 判断当前出的牌是否是有效牌型，出牌键只计算一次
+        long key = gameRule.playKey(cards);
+        if (!PlayKey.isValid(key)) {
             return false;
         }
 
         // 如果是第一手牌
-        if (lastCards == null) {
+        if (!hasLastCards) {
             // 检查是否包含方块三（方块三的intValue是41）
-            boolean hasDiamondThree = false;
-            for (Card card : cards) {
-                if (card.getIntValue() == 41) {
-                    hasDiamondThree = true;
-                    break;
-                }
-            }
-            
-            if (hasDiamondThree) {
+            if (cards.contains(41)) {
                 return true;
             } else {
                 System.out.println("你是第一个出牌的玩家，必须出包含方块三的牌型");
@@ -99,11 +140,11 @@ public class GamePlayManager {
         }
 
         // 使用规则系统判断是否可以比较大小
-        if (!gameRule.canCompare(cards, lastCards)) {
+        if (!gameRule.canCompareKeys(key, lastKey)) {
             return false;
         }
 
         // 使用规则系统比较大小
-        return gameRule.compareCards(cards, lastCards) > 0;
+        return gameRule.compareKeys(key, lastKey) > 0;
     }
 } 
\ No newline at end of file
@@ -1,23 +1,43 @@
 package Game;
 
 import Players.Player;
+import Players.TableView;
+import Rules.MoveGenerator;
+import Rules.Rule;
 import cards.Card;
+import cards.CardSet;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * 游戏状态管理器
  * 负责管理游戏状态，包括当前玩家、上一手牌、游戏结束状态等
+ * 同时作为牌桌公开信息（TableView）提供给AI策略，每次出牌与过牌都通知记牌器
+ *
+ * 除了对局使用的 updateState，还提供供搜索使用的 apply/undo：
+ * apply 一步完成出牌（或过牌）、胜负判断与轮转，undo 精确恢复到 apply 之前，
+ * 撤销信息保存在原始类型栈中，同一个对象上可以反复试走而不必复制玩家与列表
  */
-public class GameStateManager {
+public class GameStateManager implements TableView {
     private int currentPlayerIndex; // 当前玩家索引
     private int lastPlayerIndex; // 上一个实际出牌的玩家索引
     private List<Card> lastPlayedCards; // 上一次出的牌
+    private long lastPlayedMask; // 上一次出的牌（位图）
+    private final CardTracker tracker; // 记牌器：已出的牌、各家张数与过牌推断
     private boolean gameEnded; // 游戏是否结束
     private Player winner; // 获胜者
     private final List<Player> players; // 玩家列表
+    private long handKey; // 四家手牌部分的 Zobrist 键，随出牌与撤销增量更新
 
-    public GameStateManager(List<Player> players) {
+    // 撤销栈：每步保存出的牌，以及 apply 之前的状态，打包为
+    // lastPlayedMask | (lastPlayerIndex + 1) << 52 | currentPlayerIndex << 55 | gameEnded << 58
+    private long[] moveStack = new long[64];
+    private long[] stateStack = new long[64];
+    private int ply;
+
+    public GameStateManager(List<Player> players, Rule rule) {
         this.players = players;
+        this.tracker = new CardTracker(rule);
         this.currentPlayerIndex =0;
         this.lastPlayerIndex = -1;
         this.lastPlayedCards = null;
@@ -31,12 +51,9 @@ public class GameStateManager {
      */
     public int selectFirstPlayer() {
         for (int i = 0; i < players.size(); i++) {
-            Player player = players.get(i);
-            for (Card card : player.getHand()) {
-                // 方块三的intValue为41
-                if (card.getIntValue() == 41) {
-                    return i;
-                }
+            // 方块三的intValue为41
+            if (players.get(i).hasCard(41)) {
+                return i;
             }
         }
         return 0; // 如果没有找到持有方块三的玩家，返回0
@@ -60,6 +77,10 @@ public class GameStateManager {
      * 获取上一手牌
      */
     public List<Card> getLastPlayedCards() {
+        if (lastPlayedCards == null && lastPlayerIndex != -1) {
+            // apply/undo 只维护位图，列表在需要时重建
+            lastPlayedCards = CardSet.of(lastPlayedMask).toDescendingList();
+        }
         return lastPlayedCards;
     }
 
@@ -69,7 +90,12 @@ public class GameStateManager {
     public void updateState(Player player, List<Card> playedCards) {
         if (playedCards != null && !playedCards.isEmpty()) {
             lastPlayedCards = playedCards;
+            lastPlayedMask = CardSet.maskOf(playedCards);
             lastPlayerIndex = currentPlayerIndex;
+            handKey ^= Zobrist.cards(currentPlayerIndex, lastPlayedMask);
+            tracker.onPlay(currentPlayerIndex, lastPlayedMask);
+        } else if (lastPlayerIndex != -1 && lastPlayerIndex != currentPlayerIndex) {
+            tracker.onPass(currentPlayerIndex, lastPlayedMask);
         }
 
         // 检查游戏是否结束
@@ -79,6 +105,97 @@ public class GameStateManager {
         }
     }
 
+    /**
+     * 轮到的玩家出牌（PASS 表示过牌）并轮到下一家，供搜索使用，与 undo 成对调用
+     * 与 updateState + nextPlayer 的效果相同，但不通知记牌器（记牌器只记录牌桌上真实发生的事），
+     * 也不检查牌型是否合法，调用方应只传入 MoveGenerator 生成的出牌
+     * @param move 出牌位图，0 表示过牌
+     * @throws IllegalStateException 游戏已经结束
+     * @throws IllegalArgumentException 出的牌不全在轮到的玩家手中
+     */
+    public void apply(long move) {
+        if (gameEnded) {
+            throw new IllegalStateException("游戏已经结束，不能继续出牌");
+        }
+        Player player = players.get(currentPlayerIndex);
+        if ((move & ~player.getHandMask()) != 0) {
+            throw new IllegalArgumentException("Move contains cards not in hand: " + Long.toHexString(move));
+        }
+        if (ply == moveStack.length) {
+            moveStack = Arrays.copyOf(moveStack, ply * 2);
+            stateStack = Arrays.copyOf(stateStack, ply * 2);
+        }
+        moveStack[ply] = move;
+        stateStack[ply] = lastPlayedMask | (long) (lastPlayerIndex + 1) << 52
+                | (long) currentPlayerIndex << 55 | (gameEnded ? 1L << 58 : 0L);
+        ply++;
+
+        if (move != SearchPosition.PASS) {
+            player.removeCards(move);
+            handKey ^= Zobrist.cards(currentPlayerIndex, move);
+            lastPlayedMask = move;
+            lastPlayedCards = null;
+            lastPlayerIndex = currentPlayerIndex;
+            if (player.getHandMask() == 0) {
+                gameEnded = true;
+                winner = player;
+            }
+        }
+        nextPlayer();
+    }
+
+    /**
+     * 撤销最近一次 apply，恢复手牌、上一手牌及其出牌者、当前玩家与游戏结束状态
+     * @throws IllegalStateException 没有可以撤销的出牌
+     */
+    public void undo() {
+        if (ply == 0) {
+            throw new IllegalStateException("没有可以撤销的出牌");
+        }
+        ply--;
+        long move = moveStack[ply];
+        long state = stateStack[ply];
+        currentPlayerIndex = (int) (state >>> 55) & 7;
+        if (move != SearchPosition.PASS) {
+            players.get(currentPlayerIndex).restoreCards(move);
+            handKey ^= Zobrist.cards(currentPlayerIndex, move);
+            lastPlayedCards = null;
+        }
+        lastPlayedMask = state & CardSet.FULL_DECK;
+        lastPlayerIndex = (int) (state >>> 52 & 7) - 1;
+        gameEnded = (state >>> 58 & 1) != 0;
+        if (!gameEnded) {
+            winner = null;
+        }
+    }
+
+    /**
+     * 已 apply 且未撤销的步数
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * 为轮到的玩家生成全部合法出牌（不含过牌），与 SearchPosition.generateMoves 相同
+     * @return 合法出牌数；游戏已结束时为0
+     */
+    public int generateMoves(MoveGenerator generator) {
+        if (gameEnded) {
+            return 0;
+        }
+        boolean leading = lastPlayerIndex == -1 || lastPlayerIndex == currentPlayerIndex;
+        return generator.generate(getCurrentPlayer().getHandMask(), leading ? 0L : lastPlayedMask,
+                lastPlayerIndex == -1);
+    }
+
+    /**
+     * 轮到的玩家是否可以过牌（不是领出且游戏未结束）
+     */
+    public boolean canPass() {
+        return !gameEnded && lastPlayerIndex != -1 && lastPlayerIndex != currentPlayerIndex;
+    }
+
     public void setCurrentPlayerIndex(int index){
         this.currentPlayerIndex = index;
     }
@@ -97,8 +214,24 @@ public class GameStateManager {
         currentPlayerIndex = 0;
         lastPlayerIndex = -1;
         lastPlayedCards = null;
+        lastPlayedMask = 0L;
         gameEnded = false;
         winner = null;
+        ply = 0;
+        handKey = 0L;
+        int[] handSizes = new int[players.size()];
+        for (int i = 0; i < handSizes.length; i++) {
+            handSizes[i] = getHandSize(i);
+            handKey ^= Zobrist.cards(i, players.get(i).getHandMask());
+        }
+        tracker.reset(handSizes);
+    }
+
+    /**
+     * 获取本局的记牌器
+     */
+    public CardTracker getCardTracker() {
+        return tracker;
     }
 
     /**
@@ -115,9 +248,43 @@ public class GameStateManager {
         return winner;
     }
 
+    @Override
+    public int getPlayerCount() {
+        return players.size();
+    }
+
+    @Override
+    public long getLastPlayedMask() {
+        return lastPlayedMask;
+    }
+
+    @Override
+    public long getPlayedMask() {
+        return tracker.getPlayedMask();
+    }
+
+    @Override
+    public long getExcludedMask(int playerIndex) {
+        return tracker.getExcludedMask(playerIndex);
+    }
+
+    @Override
+    public int getHandSize(int playerIndex) {
+        return Long.bitCount(players.get(playerIndex).getHandMask());
+    }
+
+    /**
+     * 当前局面的 Zobrist 键（四家手牌、轮到谁、上一手牌及其出牌者），与 SearchPosition.getKey() 一致
+     * 手牌部分在 reset 时计算，之后由 updateState、apply、undo 增量更新
+     */
+    public long getZobristKey() {
+        return handKey ^ Zobrist.state(currentPlayerIndex, lastPlayedMask, lastPlayerIndex);
+    }
+
     /**
      * 获取当前玩家索引
      */
+    @Override
     public int getCurrentPlayerIndex() {
         return currentPlayerIndex;
     }
@@ -125,6 +292,7 @@ public class GameStateManager {
     /**
      * 获取上一个出牌玩家索引
      */
+    @Override
     public int getLastPlayerIndex() {
         return lastPlayerIndex;
     }
@@ -0,0 +1,125 @@
+package Game;
+
+import Players.HeuristicStrategy;
+import Players.Strategy;
+import Players.TableView;
+import Rules.Rule;
+import java.util.SplittableRandom;
+
+/**
+ * ISMCTS 策略的性能测试
+ * 第一部分：在同一开局局面上用 1..N 个线程各思考固定时间，统计每秒迭代次数，检查随线程数的扩展性
+ * 第二部分：0号位使用 ISMCTS，其余三家使用启发式策略，统计0号位的胜率（四家水平相同时约为25%）
+ * 运行：java Game.IsmctsBenchmark [局数] [每步毫秒数] [north|south]
+ */
+public class IsmctsBenchmark {
+    private static final int MAX_PLIES = 1000; // 防止策略出错时死循环
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        long budget = args.length > 1 ? Long.parseLong(args[1]) : 20;
+        Rule rule = args.length > 2 && args[2].equals("south")
+                ? Game.ruleOf(Game.RULE_SOUTH) : Game.ruleOf(Game.RULE_NORTH);
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        // 扩展性：固定局面，线程数翻倍
+        SearchPosition start = SearchPosition.fromSeed(2024L);
+        PositionTable table = new PositionTable(start, rule);
+        int seat = start.getToMove();
+        double single = 0;
+        for (int threads = 1; threads <= Math.max(processors, 1); threads *= 2) {
+            IsmctsStrategy strategy = new IsmctsStrategy(rule, 500, threads);
+            strategy.choosePlay(start.getHand(seat), 0L, true, table); // 预热
+            long begin = System.nanoTime();
+            strategy.choosePlay(start.getHand(seat), 0L, true, table);
+            double rate = strategy.getLastIterations() / ((System.nanoTime() - begin) / 1e9);
+            if (threads == 1) {
+                single = rate;
+            }
+            System.out.printf("%s  %d 线程  %.0f 次迭代/秒  加速比 %.2f%n",
+                    rule.getRuleName(), threads, rate, rate / single);
+        }
+
+        // 对局：ISMCTS 对三家启发式策略
+        Strategy[] seats = {
+                new IsmctsStrategy(rule, budget, processors),
+                new HeuristicStrategy(rule),
+                new HeuristicStrategy(rule),
+                new HeuristicStrategy(rule)
+        };
+        SplittableRandom random = new SplittableRandom(42);
+        int wins = 0;
+        for (int g = 0; g < games; g++) {
+            SearchPosition position = SearchPosition.fromSeed(random.nextLong());
+            PositionTable view = new PositionTable(position, rule);
+            for (int ply = 0; ply < MAX_PLIES && !position.isGameOver(); ply++) {
+                int mover = position.getToMove();
+                long lastPlay = position.isLeading() ? 0L : position.getLastPlay();
+                long move = seats[mover].choosePlay(position.getHand(mover), lastPlay, position.isOpening(), view);
+                if (move == SearchPosition.PASS && lastPlay == 0L) {
+                    throw new IllegalStateException("领出时不能过牌");
+                }
+                if (move == SearchPosition.PASS) {
+                    view.tracker.onPass(mover, position.getLastPlay());
+                } else {
+                    view.tracker.onPlay(mover, move);
+                }
+                position.play(move);
+            }
+            if (position.getWinner() == 0) {
+                wins++;
+            }
+        }
+        System.out.printf("%s  %d 局  每步 %d ms  ISMCTS 胜率 %.1f%%%n",
+                rule.getRuleName(), games, budget, wins * 100.0 / games);
+    }
+
+    /**
+     * 以 SearchPosition 为底的牌桌公开信息，已出的牌与过牌推断由记牌器维护
+     */
+    private static final class PositionTable implements TableView {
+        private final SearchPosition position;
+        final CardTracker tracker;
+
+        PositionTable(SearchPosition position, Rule rule) {
+            this.position = position;
+            this.tracker = new CardTracker(rule);
+            tracker.reset(new int[] {13, 13, 13, 13});
+        }
+
+        @Override
+        public int getPlayerCount() {
+            return 4;
+        }
+
+        @Override
+        public int getCurrentPlayerIndex() {
+            return position.getToMove();
+        }
+
+        @Override
+        public int getLastPlayerIndex() {
+            return position.getLastPlayer();
+        }
+
+        @Override
+        public long getLastPlayedMask() {
+            return position.getLastPlay();
+        }
+
+        @Override
+        public long getPlayedMask() {
+            return tracker.getPlayedMask();
+        }
+
+        @Override
+        public long getExcludedMask(int playerIndex) {
+            return tracker.getExcludedMask(playerIndex);
+        }
+
+        @Override
+        public int getHandSize(int playerIndex) {
+            return Long.bitCount(position.getHand(playerIndex));
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package Game;
+
+import Players.HeuristicStrategy;
+import Players.Strategy;
+import Players.TableView;
+import Rules.MoveGenerator;
+import Rules.Rule;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 信息集蒙特卡洛树搜索（ISMCTS）出牌策略
+ * 对手手牌未知：每次迭代用 DealSampler 把未出现的牌按各家剩余张数、并遵守过牌推断随机分给三家对手（确定化），
+ * 在单棵以公开出牌序列为节点的树上选择、扩展，再用启发式策略把牌局模拟到底，
+ * 出完手牌的一家得1分，沿路径回传给各节点的出牌者
+ * 同一节点下的出牌是否可用只取决于出牌者这次确定化的手牌，选择时用“可用次数”代替父节点访问次数计算 UCB
+ *
+ * 根并行：每个线程独立建一棵树、使用自己的随机数与出牌生成器，互不共享状态，
+ * 到时间后合并各棵树根节点下每种出牌的访问次数，取访问最多的出牌，因此吞吐量随核数近似线性增长
+ * 各棵树在进程共享的 SearchPool 中运行，每棵树的 DealSampler 在各次决策间复用
+ * 没有牌桌信息（或不是四人牌局）时退回启发式策略
+ */
+public class IsmctsStrategy implements Strategy {
+    public static final long DEFAULT_BUDGET_MILLIS = 300; // 每次决策的默认思考时间
+    private static final int PLAYERS = 4;
+    private static final double EXPLORATION = 0.7;
+    private static final int MAX_PLIES = 400; // 模拟步数上限，防止策略出错时死循环
+
+    private final Rule rule;
+    private final long budgetNanos;
+    private final int threads;
+    private final HeuristicStrategy fallback;
+    private final MoveGenerator generator;
+    private final DealSampler[] samplers; // 每棵树一个，各次决策间复用
+    private final SplittableRandom seeds;
+    private int iterationLimit;      // 每棵树的迭代次数上限，0 表示只受时间限制
+    private long lastIterations;     // 最近一次决策的总迭代次数
+
+    /**
+     * 使用默认思考时间，线程数为可用处理器数
+     */
+    public IsmctsStrategy(Rule rule) {
+        this(rule, DEFAULT_BUDGET_MILLIS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param rule 判断出牌合法性的规则
+     * @param budgetMillis 每次决策的思考时间（毫秒）
+     * @param threads 并行搜索的树数（线程数）
+     */
+    public IsmctsStrategy(Rule rule, long budgetMillis, int threads) {
+        if (budgetMillis <= 0) {
+            throw new IllegalArgumentException("Budget must be positive: " + budgetMillis);
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        this.rule = rule;
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        this.threads = threads;
+        this.fallback = new HeuristicStrategy(rule);
+        this.generator = new MoveGenerator(rule);
+        this.seeds = new SplittableRandom();
+        this.samplers = new DealSampler[threads];
+        for (int t = 0; t < threads; t++) {
+            samplers[t] = new DealSampler();
+        }
+    }
+
+    public Rule getRule() {
+        return rule;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * 限制每棵树的迭代次数（0 表示只受时间限制），用于测量与复现
+     */
+    public void setIterationLimit(int iterationLimit) {
+        this.iterationLimit = iterationLimit;
+    }
+
+    /**
+     * 最近一次决策中所有树的迭代次数之和
+     */
+    public long getLastIterations() {
+        return lastIterations;
+    }
+
+    @Override
+    public long choosePlay(long hand, long lastPlay, boolean opening) {
+        return fallback.choosePlay(hand, lastPlay, opening);
+    }
+
+    @Override
+    public long choosePlay(long hand, long lastPlay, boolean opening, TableView table) {
+        if (table == null || table.getPlayerCount() != PLAYERS) {
+            return fallback.choosePlay(hand, lastPlay, opening);
+        }
+
+        // 只有一种选择时不必搜索
+        int count = generator.generate(hand, lastPlay, opening);
+        boolean canPass = lastPlay != 0;
+        if (count == 0) {
+            return SearchPosition.PASS;
+        }
+        for (int i = 0; i < count; i++) {
+            if (generator.moveAt(i) == hand) {
+                return hand; // 出完即胜
+            }
+        }
+        if (count == 1 && !canPass) {
+            return generator.moveAt(0);
+        }
+
+        // 未出现的牌必须能按各家剩余张数分给三家对手，否则牌桌信息与手牌不一致；
+        // 过牌推断是软约束，与张数矛盾时（有人故意不出）放弃推断
+        int seat = table.getCurrentPlayerIndex();
+        // 第一棵树的采样器同时用来判断是否可行，其余各棵树按同样的约束准备
+        boolean useInference = samplers[0].prepare(table, hand, true);
+        if (!useInference && !samplers[0].prepare(table, hand, false)) {
+            return fallback.choosePlay(hand, lastPlay, opening);
+        }
+        for (int t = 1; t < threads; t++) {
+            samplers[t].prepare(table, hand, useInference);
+        }
+
+        SearchTask[] tasks = new SearchTask[threads];
+        long deadline = System.nanoTime() + budgetNanos;
+        for (int t = 0; t < threads; t++) {
+            tasks[t] = new SearchTask(rule, seeds.split(), samplers[t], hand, seat,
+                    table.getLastPlayedMask(), table.getLastPlayerIndex(), deadline, iterationLimit);
+        }
+        if (threads == 1) {
+            tasks[0].invoke();
+        } else {
+            SearchPool.get().invoke(new RootTask(tasks));
+        }
+
+        // 合并各棵树根节点下每种出牌的访问次数
+        Map<Long, Integer> visits = new HashMap<>();
+        long iterations = 0;
+        for (SearchTask task : tasks) {
+            Node root = task.getRawResult();
+            iterations += task.iterations;
+            for (int c = 0; c < root.childCount; c++) {
+                visits.merge(root.childMoves[c], root.children[c].visits, Integer::sum);
+            }
+        }
+        lastIterations = iterations;
+
+        long best = fallback.choosePlay(hand, lastPlay, opening);
+        int bestVisits = visits.getOrDefault(best, 0);
+        for (Map.Entry<Long, Integer> entry : visits.entrySet()) {
+            if (entry.getValue() > bestVisits) {
+                bestVisits = entry.getValue();
+                best = entry.getKey();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 同时启动各棵树的搜索并等待全部结束
+     */
+    @SuppressWarnings("serial") // 任务只在进程内使用，不会序列化
+    private static final class RootTask extends RecursiveTask<Void> {
+        private final SearchTask[] tasks;
+
+        RootTask(SearchTask[] tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected Void compute() {
+            invokeAll(tasks);
+            return null;
+        }
+    }
+
+    /**
+     * 搜索树节点：由到达它的公开出牌序列确定
+     * 子节点按出牌位图升序存放，便于二分查找
+     */
+    private static final class Node {
+        final long move;
+        final int mover;     // 出这手牌的玩家
+        int visits;
+        int available;       // 该出牌在确定化中可用的次数
+        double wins;         // 出牌者获胜的次数
+        long[] childMoves = new long[4];
+        Node[] children = new Node[4];
+        int childCount;
+
+        Node(long move, int mover) {
+            this.move = move;
+            this.mover = mover;
+        }
+
+        int indexOf(long childMove) {
+            return Arrays.binarySearch(childMoves, 0, childCount, childMove);
+        }
+
+        Node addChild(long childMove, int childMover) {
+            int at = -indexOf(childMove) - 1;
+            if (childCount == childMoves.length) {
+                childMoves = Arrays.copyOf(childMoves, childCount * 2);
+                children = Arrays.copyOf(children, childCount * 2);
+            }
+            System.arraycopy(childMoves, at, childMoves, at + 1, childCount - at);
+            System.arraycopy(children, at, children, at + 1, childCount - at);
+            Node child = new Node(childMove, childMover);
+            childMoves[at] = childMove;
+            children[at] = child;
+            childCount++;
+            return child;
+        }
+    }
+
+    /**
+     * 一棵树的搜索，直到时间或迭代次数用完
+     */
+    @SuppressWarnings("serial") // 任务只在进程内使用，不会序列化
+    private static final class SearchTask extends RecursiveTask<Node> {
+        private final MoveGenerator generator;
+        private final HeuristicStrategy rollout;
+        private final SplittableRandom random;
+        private final DealSampler sampler;
+        private final long hand;
+        private final int seat;
+        private final long lastPlay;
+        private final int lastPlayer;
+        private final long deadline;
+        private final int iterationLimit;
+        private final long[] hands = new long[PLAYERS];
+        private final Node[] path = new Node[MAX_PLIES + 1];
+        long iterations;
+
+        SearchTask(Rule rule, SplittableRandom random, DealSampler sampler, long hand, int seat,
+                   long lastPlay, int lastPlayer, long deadline, int iterationLimit) {
+            this.generator = new MoveGenerator(rule);
+            this.rollout = new HeuristicStrategy(rule);
+            this.random = random;
+            this.sampler = sampler;
+            this.hand = hand;
+            this.seat = seat;
+            this.lastPlay = lastPlay;
+            this.lastPlayer = lastPlayer;
+            this.deadline = deadline;
+            this.iterationLimit = iterationLimit;
+        }
+
+        @Override
+        protected Node compute() {
+            Node root = new Node(SearchPosition.PASS, -1);
+            do {
+                iterate(root);
+                iterations++;
+            } while ((iterationLimit == 0 || iterations < iterationLimit) && System.nanoTime() < deadline);
+            return root;
+        }
+
+        private void iterate(Node root) {
+            SearchPosition position = new SearchPosition(determinize(), seat, lastPlay, lastPlayer);
+
+            // 选择与扩展
+            Node node = root;
+            int depth = 0;
+            path[depth++] = root;
+            while (!position.isGameOver() && depth < MAX_PLIES) {
+                int mover = position.getToMove();
+                long moverHand = position.getHand(mover);
+                boolean canPass = position.canPass();
+
+                // 已有子节点中在本次确定化下可用的，累计可用次数并按 UCB 选择
+                Node selected = null;
+                double bestValue = Double.NEGATIVE_INFINITY;
+                for (int c = 0; c < node.childCount; c++) {
+                    Node child = node.children[c];
+                    if (child.move == SearchPosition.PASS ? canPass : (child.move & ~moverHand) == 0) {
+                        child.available++;
+                        double value = child.wins / child.visits
+                                + EXPLORATION * Math.sqrt(Math.log(child.available) / child.visits);
+                        if (value > bestValue) {
+                            bestValue = value;
+                            selected = child;
+                        }
+                    }
+                }
+
+                // 还有未尝试的合法出牌时随机扩展其中一个（蓄水池抽样）
+                int count = position.generateMoves(generator);
+                int untried = 0;
+                long pick = SearchPosition.PASS;
+                for (int i = 0; i < count; i++) {
+                    long move = generator.moveAt(i);
+                    if (node.indexOf(move) < 0 && random.nextInt(++untried) == 0) {
+                        pick = move;
+                    }
+                }
+                if (canPass && node.indexOf(SearchPosition.PASS) < 0 && random.nextInt(++untried) == 0) {
+                    pick = SearchPosition.PASS;
+                }
+                if (untried > 0) {
+                    Node child = node.addChild(pick, mover);
+                    child.available++;
+                    position.play(pick);
+                    path[depth++] = child;
+                    break;
+                }
+
+                position.play(selected.move);
+                node = selected;
+                path[depth++] = node;
+            }
+
+            // 用启发式策略模拟到底
+            for (int ply = 0; !position.isGameOver() && ply < MAX_PLIES; ply++) {
+                int mover = position.getToMove();
+                long move = rollout.choosePlay(position.getHand(mover),
+                        position.isLeading() ? 0L : position.getLastPlay(), position.isOpening());
+                position.play(move);
+            }
+
+            // 回传：出完手牌的一家得1分
+            int winner = position.getWinner();
+            for (int i = 1; i < depth; i++) {
+                Node visited = path[i];
+                visited.visits++;
+                if (visited.mover == winner) {
+                    visited.wins++;
+                }
+            }
+            root.visits++;
+        }
+
+        /**
+         * 把未出现的牌均匀随机地分给三家对手，张数与各家剩余张数一致
+         */
+        private long[] determinize() {
+            hands[seat] = hand;
+            sampler.sample(random, hands);
+            return hands;
+        }
+    }
+}
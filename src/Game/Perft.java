@@ -0,0 +1,208 @@
+package Game;
+
+import Players.Player;
+import Rules.MoveGenerator;
+import Rules.Rule;
+import cards.CardSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 出牌序列计数工具（perft）
+ * 从固定种子发出的开局局面出发，按规则数出深度 d 内的全部合法出牌序列（过牌也算一步），
+ * 用于校验出牌生成与牌型判断的改动没有改变结果，并测量每秒节点数
+ * 同时给出单线程与 fork/join 并行两种方式的结果，两者必须一致；
+ * 另外在 GameStateManager 上用 apply/undo 再数一遍，校验其撤销与 SearchPosition 一致
+ * 运行：java Game.Perft [种子] [north|south] [最大深度]
+ */
+public class Perft {
+    private static final int SPLIT_PLIES = 2; // 只在最上面几层拆分为并行子任务，更深处单线程计数
+
+    private final Rule rule;
+
+    public Perft(Rule rule) {
+        this.rule = rule;
+    }
+
+    /**
+     * 单线程计数
+     * @return 深度 depth 的叶子节点数
+     */
+    public long count(SearchPosition position, int depth) {
+        MoveGenerator[] generators = new MoveGenerator[Math.max(depth, 1)];
+        for (int i = 0; i < generators.length; i++) {
+            generators[i] = new MoveGenerator(rule);
+        }
+        return perft(position, depth, generators);
+    }
+
+    /**
+     * 在 ForkJoinPool 公共池中并行计数
+     */
+    public long countParallel(SearchPosition position, int depth) {
+        return ForkJoinPool.commonPool().invoke(new PerftTask(position.copy(), depth, SPLIT_PLIES));
+    }
+
+    /**
+     * 在 GameStateManager 上用 apply/undo 单线程计数
+     */
+    public long count(GameStateManager state, int depth) {
+        MoveGenerator[] generators = new MoveGenerator[Math.max(depth, 1)];
+        for (int i = 0; i < generators.length; i++) {
+            generators[i] = new MoveGenerator(rule);
+        }
+        return perft(state, depth, generators);
+    }
+
+    private long perft(GameStateManager state, int depth, MoveGenerator[] generators) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveGenerator generator = generators[depth - 1];
+        int count = state.generateMoves(generator);
+        boolean pass = state.canPass();
+        if (depth == 1) {
+            return count + (pass ? 1 : 0);
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            state.apply(generator.moveAt(i));
+            nodes += perft(state, depth - 1, generators);
+            state.undo();
+        }
+        if (pass) {
+            state.apply(SearchPosition.PASS);
+            nodes += perft(state, depth - 1, generators);
+            state.undo();
+        }
+        return nodes;
+    }
+
+    /**
+     * 按开局局面的四家手牌建立对局状态
+     */
+    private GameStateManager stateOf(SearchPosition position) {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Player player = new Player("玩家" + (i + 1), true);
+            player.receiveCards(CardSet.of(position.getHand(i)));
+            players.add(player);
+        }
+        GameStateManager state = new GameStateManager(players, rule);
+        state.reset();
+        state.setCurrentPlayerIndex(position.getToMove());
+        return state;
+    }
+
+    private long perft(SearchPosition position, int depth, MoveGenerator[] generators) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveGenerator generator = generators[depth - 1];
+        int count = position.generateMoves(generator);
+        boolean pass = position.canPass();
+        if (depth == 1) {
+            // 最后一层只需计数，不必逐个执行
+            return count + (pass ? 1 : 0);
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            position.play(generator.moveAt(i));
+            nodes += perft(position, depth - 1, generators);
+            position.undo();
+        }
+        if (pass) {
+            position.play(SearchPosition.PASS);
+            nodes += perft(position, depth - 1, generators);
+            position.undo();
+        }
+        return nodes;
+    }
+
+    @SuppressWarnings("serial") // 任务只在进程内使用，不会序列化
+    private final class PerftTask extends RecursiveTask<Long> {
+        private final SearchPosition position;
+        private final int depth;
+        private final int splits; // 还可以继续拆分的层数
+
+        PerftTask(SearchPosition position, int depth, int splits) {
+            this.position = position;
+            this.depth = depth;
+            this.splits = splits;
+        }
+
+        @Override
+        protected Long compute() {
+            if (splits == 0 || depth < 2) {
+                return count(position, depth);
+            }
+            MoveGenerator generator = new MoveGenerator(rule);
+            int count = position.generateMoves(generator);
+            boolean pass = position.canPass();
+            PerftTask[] tasks = new PerftTask[count + (pass ? 1 : 0)];
+            for (int i = 0; i < tasks.length; i++) {
+                position.play(i < count ? generator.moveAt(i) : SearchPosition.PASS);
+                tasks[i] = new PerftTask(position.copy(), depth - 1, splits - 1);
+                position.undo();
+            }
+            invokeAll(tasks);
+            long nodes = 0;
+            for (PerftTask task : tasks) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 2024L;
+        String ruleName = args.length > 1 ? args[1] : "north";
+        int maxDepth = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        Rule rule;
+        switch (ruleName) {
+            case "north":
+                rule = Game.ruleOf(Game.RULE_NORTH);
+                break;
+            case "south":
+                rule = Game.ruleOf(Game.RULE_SOUTH);
+                break;
+            default:
+                throw new IllegalArgumentException("未知规则：" + ruleName + "（可选 north / south）");
+        }
+
+        Perft perft = new Perft(rule);
+        SearchPosition position = SearchPosition.fromSeed(seed);
+        GameStateManager state = perft.stateOf(position);
+        System.out.println("种子 " + seed + "，" + rule.getRuleName() + "，先出玩家 " + position.getToMove()
+                + "，并行度 " + ForkJoinPool.getCommonPoolParallelism());
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long start = System.nanoTime();
+            long nodes = perft.count(position, depth);
+            long singleTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long parallelNodes = perft.countParallel(position, depth);
+            long parallelTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long stateNodes = perft.count(state, depth);
+            long stateTime = System.nanoTime() - start;
+
+            if (nodes != parallelNodes) {
+                throw new IllegalStateException("并行计数不一致：" + nodes + " != " + parallelNodes);
+            }
+            if (nodes != stateNodes || state.getPly() != 0 || state.getZobristKey() != position.getKey()) {
+                throw new IllegalStateException("apply/undo 计数不一致：" + nodes + " != " + stateNodes);
+            }
+            System.out.printf("深度 %d  节点 %,d  单线程 %.1f ms (%.2f M/s)  并行 %.1f ms (%.2f M/s)"
+                            + "  apply/undo %.1f ms (%.2f M/s)%n", depth, nodes,
+                    singleTime / 1e6, nodes * 1e3 / Math.max(singleTime, 1),
+                    parallelTime / 1e6, nodes * 1e3 / Math.max(parallelTime, 1),
+                    stateTime / 1e6, nodes * 1e3 / Math.max(stateTime, 1));
+        }
+    }
+}
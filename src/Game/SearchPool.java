@@ -0,0 +1,25 @@
+package Game;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 多线程搜索（IsmctsStrategy 的根并行、DoubleDummySolver 的 lazy SMP）共用的线程池
+ * 整个进程只有一个，首次使用时创建，并行度为可用处理器数；
+ * 工作线程是守护线程，空闲一段时间后自动回收，因此不需要关闭
+ * 不使用公共池：公共池的并行度比处理器数少一，按处理器数拆分的任务会有一个排在最后才开始
+ */
+final class SearchPool {
+    private SearchPool() {
+    }
+
+    private static final class Holder {
+        static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 共享的线程池；请求的线程数多于并行度时，多出的任务排队执行
+     */
+    static ForkJoinPool get() {
+        return Holder.POOL;
+    }
+}
@@ -0,0 +1,204 @@
+package Game;
+
+import Rules.MoveGenerator;
+import cards.Deck;
+import java.util.Arrays;
+
+/**
+ * 供搜索使用的紧凑局面
+ * 只保存原始类型：四家手牌位图、轮到谁出、需要压过的上一手牌及其出牌者
+ * 出牌规则与 GameStateManager / GamePlayManager 一致：
+ *   - 还没有人出过牌时（lastPlayer == -1）必须领出，且必须包含方块三
+ *   - 其他三家都过牌、又轮回上一手牌的出牌者时，由他任意领出
+ *   - 其余情况可以过牌，或出能压过上一手牌的牌
+ *   - 有人出完手牌即结束
+ * play/undo 成对调用，撤销信息保存在内部的原始类型栈中，不创建对象
+ * 同时增量维护局面的 Zobrist 键（见 Zobrist），供置换表使用
+ */
+public class SearchPosition {
+    public static final long PASS = 0L; // 过牌
+    private static final int PLAYERS = 4;
+
+    private final long[] hands = new long[PLAYERS];
+    private int toMove;
+    private long lastPlay;     // 上一手实际出的牌，0 表示还没有
+    private int lastPlayer;    // 上一手牌的出牌者，-1 表示还没有人出牌
+    private int winner = -1;
+    private long handKey;      // 四家手牌部分的 Zobrist 键，随出牌增量更新
+
+    // 撤销栈：每步保存出的牌以及出牌前的 lastPlay 与 lastPlayer（打包为 lastPlay | (lastPlayer + 1) << 52）
+    private long[] moveStack = new long[64];
+    private long[] stateStack = new long[64];
+    private int ply;
+
+    /**
+     * 开局局面，由持有方块三的玩家先出
+     * @param hands 四家手牌位图
+     */
+    public SearchPosition(long[] hands) {
+        if (hands.length != PLAYERS) {
+            throw new IllegalArgumentException("需要恰好4家手牌");
+        }
+        System.arraycopy(hands, 0, this.hands, 0, PLAYERS);
+        this.toMove = 0;
+        for (int i = 0; i < PLAYERS; i++) {
+            if ((hands[i] & 1L << MoveGenerator.DIAMOND_THREE) != 0) {
+                this.toMove = i;
+            }
+            this.handKey ^= Zobrist.cards(i, hands[i]);
+        }
+        this.lastPlay = 0L;
+        this.lastPlayer = -1;
+    }
+
+    /**
+     * 任意局面
+     * @param hands 四家手牌位图
+     * @param toMove 轮到出牌的玩家
+     * @param lastPlay 上一手实际出的牌，0 表示还没有人出牌
+     * @param lastPlayer 上一手牌的出牌者，-1 表示还没有人出牌
+     */
+    public SearchPosition(long[] hands, int toMove, long lastPlay, int lastPlayer) {
+        this(hands);
+        this.toMove = toMove;
+        this.lastPlay = lastPlay;
+        this.lastPlayer = lastPlayer;
+        for (int i = 0; i < PLAYERS; i++) {
+            if (hands[i] == 0) {
+                winner = i;
+            }
+        }
+    }
+
+    /**
+     * 用指定种子洗牌发牌得到的开局局面，与 Game.initGame(seed) 的发牌相同
+     */
+    public static SearchPosition fromSeed(long seed) {
+        long[] hands = new long[PLAYERS];
+        new Deck(seed).dealHands(hands, 13);
+        return new SearchPosition(hands);
+    }
+
+    /**
+     * 复制当前局面（不含撤销历史），供并行搜索的各个任务独立使用
+     */
+    public SearchPosition copy() {
+        SearchPosition copy = new SearchPosition(hands, toMove, lastPlay, lastPlayer);
+        copy.winner = winner;
+        return copy;
+    }
+
+    public long getHand(int player) {
+        return hands[player];
+    }
+
+    public int getToMove() {
+        return toMove;
+    }
+
+    public long getLastPlay() {
+        return lastPlay;
+    }
+
+    public int getLastPlayer() {
+        return lastPlayer;
+    }
+
+    /**
+     * 是否为全局第一手牌（必须包含方块三）
+     */
+    public boolean isOpening() {
+        return lastPlayer == -1;
+    }
+
+    /**
+     * 轮到的玩家是否领出（不需要压过任何牌，也不能过牌）
+     */
+    public boolean isLeading() {
+        return lastPlayer == -1 || lastPlayer == toMove;
+    }
+
+    public boolean canPass() {
+        return !isLeading() && !isGameOver();
+    }
+
+    public boolean isGameOver() {
+        return winner != -1;
+    }
+
+    /**
+     * 出完手牌的玩家，未结束时返回 -1
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * 为轮到的玩家生成全部合法出牌（不含过牌）
+     * @return 合法出牌数；局面已结束时为0
+     */
+    public int generateMoves(MoveGenerator generator) {
+        if (isGameOver()) {
+            return 0;
+        }
+        return generator.generate(hands[toMove], isLeading() ? 0L : lastPlay, isOpening());
+    }
+
+    /**
+     * 轮到的玩家出牌（PASS 表示过牌），调用方保证出牌合法
+     */
+    public void play(long move) {
+        if (ply == moveStack.length) {
+            moveStack = Arrays.copyOf(moveStack, ply * 2);
+            stateStack = Arrays.copyOf(stateStack, ply * 2);
+        }
+        moveStack[ply] = move;
+        stateStack[ply] = lastPlay | (long) (lastPlayer + 1) << 52;
+        ply++;
+
+        if (move != PASS) {
+            hands[toMove] &= ~move;
+            handKey ^= Zobrist.cards(toMove, move);
+            lastPlay = move;
+            lastPlayer = toMove;
+            if (hands[toMove] == 0) {
+                winner = toMove;
+            }
+        }
+        toMove = (toMove + 1) % PLAYERS;
+    }
+
+    /**
+     * 撤销最近一次 play
+     */
+    public void undo() {
+        if (ply == 0) {
+            throw new IllegalStateException("没有可以撤销的出牌");
+        }
+        ply--;
+        long move = moveStack[ply];
+        long state = stateStack[ply];
+        toMove = (toMove + PLAYERS - 1) % PLAYERS;
+        if (move != PASS) {
+            hands[toMove] |= move;
+            handKey ^= Zobrist.cards(toMove, move);
+            winner = -1;
+        }
+        lastPlay = state & ((1L << 52) - 1);
+        lastPlayer = (int) (state >>> 52) - 1;
+    }
+
+    /**
+     * 局面的 Zobrist 键，与 Zobrist.of(四家手牌, 轮到谁, 上一手牌, 出牌者) 相同
+     */
+    public long getKey() {
+        return handKey ^ Zobrist.state(toMove, lastPlay, lastPlayer);
+    }
+
+    /**
+     * 已执行且未撤销的步数
+     */
+    public int getPly() {
+        return ply;
+    }
+}
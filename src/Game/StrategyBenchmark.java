@@ -0,0 +1,90 @@
+package Game;
+
+import Players.HeuristicStrategy;
+import Players.Strategy;
+import Rules.MoveGenerator;
+import Rules.Rule;
+import java.util.SplittableRandom;
+
+/**
+ * 出牌策略的模拟测试
+ * 用 SearchPosition 连续模拟整局游戏：0号位使用启发式策略，其余三家使用“总是出最小的牌”的基准策略，
+ * 统计每次决策的平均耗时与0号位的胜率（四家水平相同时约为25%）
+ * 第三个参数为 decompose 时0号位按手牌最优拆分领出（普通难度AI使用的版本）
+ * 运行：java Game.StrategyBenchmark [局数] [north|south] [plain|decompose]
+ */
+public class StrategyBenchmark {
+    private static final int MAX_PLIES = 1000; // 防止策略出错时死循环
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Rule rule = args.length > 1 && args[1].equals("south")
+                ? Game.ruleOf(Game.RULE_SOUTH) : Game.ruleOf(Game.RULE_NORTH);
+        boolean decompose = args.length > 2 && args[2].equals("decompose");
+
+        Strategy[] seats = {
+                new HeuristicStrategy(rule, decompose),
+                new CheapestStrategy(rule),
+                new CheapestStrategy(rule),
+                new CheapestStrategy(rule)
+        };
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (int round = 1; round <= 3; round++) {
+            int wins = 0;
+            long decisions = 0;
+            long heuristicDecisions = 0;
+            long heuristicTime = 0;
+            for (int g = 0; g < games; g++) {
+                SearchPosition position = SearchPosition.fromSeed(random.nextLong());
+                for (int ply = 0; ply < MAX_PLIES && !position.isGameOver(); ply++) {
+                    int seat = position.getToMove();
+                    long lastPlay = position.isLeading() ? 0L : position.getLastPlay();
+                    long start = seat == 0 ? System.nanoTime() : 0L;
+                    long move = seats[seat].choosePlay(position.getHand(seat), lastPlay, position.isOpening());
+                    if (seat == 0) {
+                        heuristicTime += System.nanoTime() - start;
+                        heuristicDecisions++;
+                    }
+                    if (move == 0L && lastPlay == 0L) {
+                        throw new IllegalStateException("领出时不能过牌");
+                    }
+                    position.play(move);
+                    decisions++;
+                }
+                if (position.getWinner() == 0) {
+                    wins++;
+                }
+            }
+            System.out.printf("第%d轮  %s  %d 局  启发式胜率 %.1f%%  平均每局 %.1f 步  启发式决策 %.2f us/次%n",
+                    round, rule.getRuleName(), games, wins * 100.0 / games, (double) decisions / games,
+                    heuristicTime / 1e3 / Math.max(heuristicDecisions, 1));
+        }
+    }
+
+    /**
+     * 基准策略：领出时出规则顺序下最小的牌，跟牌时出最小的能压过的牌
+     */
+    private static final class CheapestStrategy implements Strategy {
+        private final MoveGenerator generator;
+
+        CheapestStrategy(Rule rule) {
+            this.generator = new MoveGenerator(rule);
+        }
+
+        @Override
+        public long choosePlay(long hand, long lastPlay, boolean opening) {
+            int count = generator.generate(hand, lastPlay, opening);
+            long best = 0L;
+            long bestKey = Long.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                long key = generator.keyAt(i) & 0xFFFF;
+                if (key < bestKey) {
+                    bestKey = key;
+                    best = generator.moveAt(i);
+                }
+            }
+            return best;
+        }
+    }
+}
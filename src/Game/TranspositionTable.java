@@ -0,0 +1,111 @@
+package Game;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * 堆外、无锁的置换表
+ * 固定大小，保存在 MemorySegment 中，不产生 GC 压力；多个搜索线程可以不加锁地共享
+ *
+ * 每个桶32字节，两项：
+ *   - 第0项深度优先：只有新结果的深度不小于已有结果（或是同一局面）时才替换
+ *   - 第1项总是替换：深度优先项不接受的结果写在这里
+ * 每项两个 long：第一个为 键 ^ 数据，第二个为数据
+ * 并发写入可能让两个字交错成不一致的一对，读取时用 第一个字 ^ 第二个字 == 键 校验，
+ * 不一致的项等同于未命中，因此不需要加锁
+ *
+ * 数据的打包格式：
+ *   位 0-51   出牌位图（NO_MOVE 表示没有）
+ *   位 52-53  结果（含义由使用方决定）
+ *   位 54     有效位
+ *   位 55-63  深度（0-511，越大表示结果越值钱）
+ */
+public final class TranspositionTable {
+    public static final long MISS = 0L;
+    public static final long NO_MOVE = (1L << 52) - 1;    // 52张牌不可能一次出完，不会与真实出牌冲突
+    public static final int MAX_DEPTH = 511;
+
+    private static final int BUCKET_BYTES = 32;
+    private static final int ENTRY_BYTES = 16;
+    private static final int VALUE_SHIFT = 52;
+    private static final long VALID_BIT = 1L << 54;
+    private static final int DEPTH_SHIFT = 55;
+
+    private final MemorySegment segment;
+    private final long bucketMask;
+
+    /**
+     * @param bucketBits 桶数的以2为底的对数，占用 32 * 2^bucketBits 字节
+     */
+    public TranspositionTable(int bucketBits) {
+        if (bucketBits < 1 || bucketBits > 30) {
+            throw new IllegalArgumentException("Bucket count must be between 2^1 and 2^30: " + bucketBits);
+        }
+        long buckets = 1L << bucketBits;
+        this.segment = Arena.ofAuto().allocate(buckets * BUCKET_BYTES, BUCKET_BYTES);
+        this.bucketMask = buckets - 1;
+    }
+
+    /**
+     * 查找局面
+     * @return 打包的数据，未命中时为 MISS
+     */
+    public long probe(long key) {
+        long offset = (key & bucketMask) * BUCKET_BYTES;
+        for (int entry = 0; entry < 2; entry++) {
+            long at = offset + entry * ENTRY_BYTES;
+            long check = segment.get(ValueLayout.JAVA_LONG, at);
+            long data = segment.get(ValueLayout.JAVA_LONG, at + 8);
+            if ((check ^ data) == key && (data & VALID_BIT) != 0) {
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * 保存局面的结果
+     * @param move 最佳出牌，没有时为 NO_MOVE
+     * @param value 结果（0-3）
+     * @param depth 深度（0-511），用于决定是否替换深度优先项
+     */
+    public void store(long key, long move, int value, int depth) {
+        long data = move & NO_MOVE | (long) (value & 3) << VALUE_SHIFT | VALID_BIT
+                | (long) Math.min(depth, MAX_DEPTH) << DEPTH_SHIFT;
+        long offset = (key & bucketMask) * BUCKET_BYTES;
+        long oldCheck = segment.get(ValueLayout.JAVA_LONG, offset);
+        long oldData = segment.get(ValueLayout.JAVA_LONG, offset + 8);
+        if ((oldCheck ^ oldData) != key && depthOf(oldData) > depth) {
+            offset += ENTRY_BYTES; // 深度优先项保留更深的结果，写入总是替换项
+        }
+        segment.set(ValueLayout.JAVA_LONG, offset, key ^ data);
+        segment.set(ValueLayout.JAVA_LONG, offset + 8, data);
+    }
+
+    /**
+     * 清空全部项（搜索线程都停止后调用）
+     */
+    public void clear() {
+        segment.fill((byte) 0);
+    }
+
+    /**
+     * 可保存的项数
+     */
+    public long capacity() {
+        return (bucketMask + 1) * 2;
+    }
+
+    public static long moveOf(long data) {
+        return data & NO_MOVE;
+    }
+
+    public static int valueOf(long data) {
+        return (int) (data >>> VALUE_SHIFT) & 3;
+    }
+
+    public static int depthOf(long data) {
+        return (int) (data >>> DEPTH_SHIFT);
+    }
+}
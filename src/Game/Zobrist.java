@@ -0,0 +1,91 @@
+package Game;
+
+import java.util.SplittableRandom;
+
+/**
+ * 局面的 Zobrist 散列键
+ * 局面由四家手牌、轮到谁、需要压过的上一手牌及其出牌者组成（与 GameStateManager 保存的状态相同），
+ * 每个组成部分对应一个随机数，局面的键为各部分随机数的异或：
+ *   - 每家持有的每张牌：CARDS[玩家][牌]
+ *   - 轮到出牌的玩家：TO_MOVE[玩家]
+ *   - 需要压过的牌：其中每张牌的 LAST_PLAY[牌]，再异或出牌者的 LAST_PLAYER[玩家]
+ *   - 领出时上一手牌与结果无关，只异或 LEADING；全局第一手牌异或 OPENING
+ * 出牌时只需异或掉打出的牌，因此可以随出牌、撤销增量维护
+ * 随机数由固定种子生成，不同进程得到相同的键
+ */
+public final class Zobrist {
+    private static final int PLAYERS = 4;
+    private static final int CARDS_IN_DECK = 52;
+
+    private static final long[][] CARDS = new long[PLAYERS][CARDS_IN_DECK];
+    private static final long[] LAST_PLAY = new long[CARDS_IN_DECK];
+    private static final long[] TO_MOVE = new long[PLAYERS];
+    private static final long[] LAST_PLAYER = new long[PLAYERS];
+    private static final long LEADING;
+    private static final long OPENING;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5A0B7157L);
+        for (long[] keys : CARDS) {
+            for (int card = 0; card < CARDS_IN_DECK; card++) {
+                keys[card] = random.nextLong();
+            }
+        }
+        for (int card = 0; card < CARDS_IN_DECK; card++) {
+            LAST_PLAY[card] = random.nextLong();
+        }
+        for (int p = 0; p < PLAYERS; p++) {
+            TO_MOVE[p] = random.nextLong();
+            LAST_PLAYER[p] = random.nextLong();
+        }
+        LEADING = random.nextLong();
+        OPENING = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * 某家持有这些牌对应的键，出牌时把打出的牌的键异或掉即可
+     */
+    public static long cards(int player, long cards) {
+        long[] keys = CARDS[player];
+        long key = 0L;
+        for (long bits = cards; bits != 0; bits &= bits - 1) {
+            key ^= keys[Long.numberOfTrailingZeros(bits)];
+        }
+        return key;
+    }
+
+    /**
+     * 手牌之外的部分：轮到谁、需要压过的牌及其出牌者
+     * @param lastPlay 上一手实际出的牌，0 表示还没有人出牌
+     * @param lastPlayer 上一手牌的出牌者，-1 表示还没有人出牌
+     */
+    public static long state(int toMove, long lastPlay, int lastPlayer) {
+        long key = TO_MOVE[toMove];
+        if (lastPlayer == -1) {
+            return key ^ OPENING;
+        }
+        if (lastPlayer == toMove) {
+            return key ^ LEADING;
+        }
+        key ^= LAST_PLAYER[lastPlayer];
+        for (long bits = lastPlay; bits != 0; bits &= bits - 1) {
+            key ^= LAST_PLAY[Long.numberOfTrailingZeros(bits)];
+        }
+        return key;
+    }
+
+    /**
+     * 完整局面的键
+     * @param hands 各家手牌位图
+     */
+    public static long of(long[] hands, int toMove, long lastPlay, int lastPlayer) {
+        long key = state(toMove, lastPlay, lastPlayer);
+        for (int p = 0; p < hands.length; p++) {
+            key ^= cards(p, hands[p]);
+        }
+        return key;
+    }
+}
@@ -68,6 +68,22 @@ public class Main {
             System.out.println("输入无效，默认使用北方规则");
         }
         
+        // 选择AI难度
+        System.out.println("请选择AI难度：");
+        System.out.println("1. 普通");
+        System.out.println("2. 困难");
+        
+        int aiLevel = Game.AI_NORMAL;
+        try {
+            aiLevel = Integer.parseInt(scanner.nextLine().trim());
+            if (aiLevel != Game.AI_NORMAL && aiLevel != Game.AI_HARD) {
+                System.out.println("无效选择，默认使用普通难度");
+                aiLevel = Game.AI_NORMAL;
+            }
+        } catch (Exception e) {
+            System.out.println("输入无效，默认使用普通难度");
+        }
+        
         System.out.println("请输入你的名字：");
         String playerName = scanner.nextLine().trim();
         if (playerName.isEmpty()) {
@@ -75,7 +91,7 @@ public class Main {
         }
         
         // 创建单人模式游戏
-        Game game = Game.createSinglePlayerGame(playerName, ruleChoice);
+        Game game = Game.createSinglePlayerGame(playerName, ruleChoice, aiLevel);
         
         // 开始游戏
         System.out.println("\n游戏开始！使用" + game.getRuleName());
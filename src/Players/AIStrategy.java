@@ -1,12 +1,10 @@
 package Players;
 
 import cards.Card;
-import cards.Rank;
+import cards.CardSet;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 
 /**
@@ -24,13 +22,12 @@ public class AIStrategy {
      * @return 决定出的牌
      */
     public static List<Card> makeDecision(Player player, List<Card> lastCards) {
-        // 如果是第一手牌，随机出一张
-        if (lastCards == null) {
-            return playRandomCard(player);
-        }
-        
-        // 如果上一个实际出牌的玩家就是当前AI玩家，必须出牌
-        if (isLastPlayerCurrentPlayer(player)) {
+        // 如果是第一手牌或上一个实际出牌的玩家就是当前AI玩家，必须出牌
+        // 知道本局规则时按手牌最优拆分领出，否则随机出一张
+        if (lastCards == null || isLastPlayerCurrentPlayer(player)) {
+            if (player.getGameRule() != null) {
+                return playByDecomposition(player, lastCards == null);
+            }
             return playRandomCard(player);
         }
         
@@ -54,6 +51,32 @@ public class AIStrategy {
         return player.getLastPlayerIndex() == player.getCurrentPlayerIndex();
     }
     
+    /**
+     * 按手牌最优拆分领出（见 HandDecomposer.leadPlay），无法拆分时退回随机出一张
+     * @param player 玩家
+     * @param opening 是否为全局第一手牌
+     * @return 出的牌
+     */
+    private static List<Card> playByDecomposition(Player player, boolean opening) {
+        long hand = player.getHandMask();
+        if (hand == 0) {
+            return Collections.emptyList();
+        }
+        long chosen = player.getDecomposer(player.getGameRule()).leadPlay(hand, opening);
+        if (chosen == 0L) {
+            return playRandomCard(player);
+        }
+
+        // 只选出牌，由 GamePlayManager 校验通过后再从手牌中移除
+        List<Card> playedCards = CardSet.of(chosen).toList();
+        StringBuilder display = new StringBuilder(player.getName()).append("出牌：");
+        for (int i = 0; i < playedCards.size(); i++) {
+            display.append(i == 0 ? "" : " ").append(playedCards.get(i).getDisplayName());
+        }
+        System.out.println(display);
+        return playedCards;
+    }
+
     /**
      * 随机出一张牌
      * @param player 玩家
@@ -91,7 +114,7 @@ public class AIStrategy {
             List<Integer> validIndices = new ArrayList<>();
             for (int i = 0; i < hand.size(); i++) {
                 Card card = hand.get(i);
-                if (isHigherRank(card.getRank(), lastCard.getRank())) {
+                if (isHigherRank(card, lastCard)) {
                     validIndices.add(i);
                 }
             }
@@ -109,8 +132,8 @@ public class AIStrategy {
         }
         
         // 如果上一手牌是对子(两张相同牌)
-        if (lastCards.size() == 2 && lastCards.get(0).getRank().getValue() == lastCards.get(1).getRank().getValue()) {
-            return findAndPlayPair(player, lastCards.get(0).getRank());
+        if (lastCards.size() == 2 && lastCards.get(0).getRankValue() == lastCards.get(1).getRankValue()) {
+            return findAndPlayPair(player, lastCards.get(0).getRankWeight());
         }
         
         return Collections.emptyList();
@@ -119,41 +142,28 @@ public class AIStrategy {
     /**
      * 找出并打出一对比指定点数大的牌
      * @param player 玩家
-     * @param lastRank 上一手牌的点数
+     * @param lastRankWeight 上一手牌的点数权重
      * @return 选择出的一对牌，如果没有合适的牌则返回空列表
      */
-    private static List<Card> findAndPlayPair(Player player, Rank lastRank) {
-        List<Card> hand = player.getHand();
-        
-        // 统计各个点数的牌的数量
-        Map<Integer, List<Integer>> rankToIndices = new HashMap<>();
-        for (int i = 0; i < hand.size(); i++) {
-            Card card = hand.get(i);
-            int rankValue = card.getRank().getValue();
-            
-            if (!rankToIndices.containsKey(rankValue)) {
-                rankToIndices.put(rankValue, new ArrayList<>());
-            }
-            rankToIndices.get(rankValue).add(i);
-        }
-        
-        // 找出所有大于上一手牌且数量大于等于2的点数
-        List<Integer> validRanks = new ArrayList<>();
-        for (int rankValue : rankToIndices.keySet()) {
-            if (rankToIndices.get(rankValue).size() >= 2 && isHigherRank(Rank.fromValue(rankValue), lastRank)) {
-                validRanks.add(rankValue);
-            }
-        }
+    private static List<Card> findAndPlayPair(Player player, int lastRankWeight) {
+        // 直接查询手牌分析索引中张数大于等于2的点数（位 i 对应点数权重 i + 3）
+        int validRanks = player.getAnalysis().getPairRanks() & ~((1 << (lastRankWeight - 2)) - 1);
         
-        if (!validRanks.isEmpty()) {
+        if (validRanks != 0) {
             // 选择最小的符合条件的对子
-            Collections.sort(validRanks);
-            int smallestValidRank = validRanks.get(0);
+            int smallestValidRank = Integer.numberOfTrailingZeros(validRanks) + 3;
             
-            // 获取这个点数的前两张牌
-            List<Integer> pairIndices = rankToIndices.get(smallestValidRank).subList(0, 2);
+            // 取这个点数中权重最大的两张牌（手牌按权重从大到小排列，先遇到的即是）
+            List<Card> playedCards = new ArrayList<>(2);
+            for (Card card : player.getHand()) {
+                if (card.getRankWeight() == smallestValidRank) {
+                    playedCards.add(card);
+                    if (playedCards.size() == 2) {
+                        break;
+                    }
+                }
+            }
             
-            List<Card> playedCards = player.playCards(pairIndices);
             System.out.println(player.getName() + "出牌：" + 
                                playedCards.get(0).getDisplayName() + " " + 
                                playedCards.get(1).getDisplayName());
@@ -164,33 +174,14 @@ public class AIStrategy {
     }
     
     /**
-     * 判断rank1是否比rank2大
-     * @param rank1 第一个点数
-     * @param rank2 第二个点数
-     * @return rank1是否大于rank2
-     */
-    private static boolean isHigherRank(Rank rank1, Rank rank2) {
-        // 将A当作最大牌，2次之
-        int value1 = rank1.getValue();
-        int value2 = rank2.getValue();
-        
-        // 将值转换为比较值（A=最大）
-        value1 = convertToCompareValue(value1);
-        value2 = convertToCompareValue(value2);
-        
-        return value1 > value2;
-    }
-    
-    /**
-     * 将Rank值转换为比较值
-     * A(0) -> 14
-     * 2(1) -> 15
-     * 3-K(2-12) -> 2-12
+     * 判断card1的点数是否比card2大
+     * 点数权重查表得到：2 > A > K > ... > 3
+     * @param card1 第一张牌
+     * @param card2 第二张牌
+     * @return card1的点数是否大于card2
      */
-    private static int convertToCompareValue(int value) {
-        if (value == 0) return 14; // A
-        if (value == 1) return 15; // 2
-        return value;  // 3-K 保持原值
+    private static boolean isHigherRank(Card card1, Card card2) {
+        return card1.getRankWeight() > card2.getRankWeight();
     }
     
     /**
@@ -201,11 +192,11 @@ public class AIStrategy {
      */
     private static int findSmallestCardIndex(List<Card> hand, List<Integer> indices) {
         int smallestIndex = indices.get(0);
-        int smallestValue = convertToCompareValue(hand.get(smallestIndex).getRank().getValue());
+        int smallestValue = hand.get(smallestIndex).getRankWeight();
         
         for (int i = 1; i < indices.size(); i++) {
             int index = indices.get(i);
-            int value = convertToCompareValue(hand.get(index).getRank().getValue());
+            int value = hand.get(index).getRankWeight();
             
             if (value < smallestValue) {
                 smallestValue = value;
@@ -215,4 +206,4 @@ public class AIStrategy {
         
         return smallestIndex;
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,218 @@
+package Players;
+
+import cards.Card;
+import java.util.Arrays;
+
+/**
+ * 手牌分析索引
+ * 随手牌的增减以 O(1) 代价增量维护，AI 与出牌校验可以直接查询而不必重新扫描手牌
+ * 点数统一按大小顺序编号：0 表示 3，1 表示 4，...，11 表示 A，12 表示 2（即点数权重 - 3）
+ * 花色在本类中按花色权重编号：0 方片、1 梅花、2 红桃、3 黑桃
+ */
+public class HandAnalysis {
+    private final int[] rankCounts = new int[13];  // 各点数的张数
+    private final int[] rankSuits = new int[13];   // 各点数持有的花色位图（位 i 为花色权重 i）
+    private final int[] suitCounts = new int[4];   // 各花色的张数（按花色值 Suit.getValue() 编号）
+    private int rankMask;    // 持有的点数（按大小顺序编号）
+    private int faceMask;    // 持有的面值（按 Rank.getValue() 编号，用于判断顺子）
+    private int pairMask;    // 张数 >= 2 的点数
+    private int tripleMask;  // 张数 >= 3 的点数
+    private int quadMask;    // 张数 == 4 的点数
+
+    /**
+     * 记录一张新加入手牌的牌，调用方保证这张牌原先不在手牌中
+     */
+    void add(int intValue) {
+        int order = Card.rankWeightOf(intValue) - 3;
+        int count = ++rankCounts[order];
+        rankSuits[order] |= 1 << (3 - Card.suitValueOf(intValue));
+        suitCounts[Card.suitValueOf(intValue)]++;
+        rankMask |= 1 << order;
+        faceMask |= 1 << Card.rankValueOf(intValue);
+        if (count == 2) pairMask |= 1 << order;
+        if (count == 3) tripleMask |= 1 << order;
+        if (count == 4) quadMask |= 1 << order;
+    }
+
+    /**
+     * 记录一张离开手牌的牌，调用方保证这张牌原先在手牌中
+     */
+    void remove(int intValue) {
+        int order = Card.rankWeightOf(intValue) - 3;
+        int count = --rankCounts[order];
+        rankSuits[order] &= ~(1 << (3 - Card.suitValueOf(intValue)));
+        suitCounts[Card.suitValueOf(intValue)]--;
+        if (count == 0) {
+            rankMask &= ~(1 << order);
+            faceMask &= ~(1 << Card.rankValueOf(intValue));
+        }
+        if (count == 1) pairMask &= ~(1 << order);
+        if (count == 2) tripleMask &= ~(1 << order);
+        if (count == 3) quadMask &= ~(1 << order);
+    }
+
+    void clear() {
+        Arrays.fill(rankCounts, 0);
+        Arrays.fill(rankSuits, 0);
+        Arrays.fill(suitCounts, 0);
+        rankMask = 0;
+        faceMask = 0;
+        pairMask = 0;
+        tripleMask = 0;
+        quadMask = 0;
+    }
+
+    /**
+     * 某个面值的张数
+     * @param rankValue 面值（Rank.getValue()，0 为 A，12 为 K）
+     */
+    public int getRankCount(int rankValue) {
+        return rankCounts[(rankValue + 11) % 13];
+    }
+
+    /**
+     * 某个花色的张数
+     * @param suitValue 花色值（Suit.getValue()，0 为黑桃，3 为方片）
+     */
+    public int getSuitCount(int suitValue) {
+        return suitCounts[suitValue];
+    }
+
+    /**
+     * 持有的点数位图，位 i 表示大小顺序为 i 的点数（0 为 3，12 为 2）
+     */
+    public int getRankMask() {
+        return rankMask;
+    }
+
+    /**
+     * 能组成对子的点数位图，编号同 getRankMask()
+     */
+    public int getPairRanks() {
+        return pairMask;
+    }
+
+    /**
+     * 能组成三张的点数位图，编号同 getRankMask()
+     */
+    public int getTripleRanks() {
+        return tripleMask;
+    }
+
+    /**
+     * 持有四张的点数位图，编号同 getRankMask()
+     */
+    public int getQuadRanks() {
+        return quadMask;
+    }
+
+    /**
+     * 手牌中能组成的5张顺子的位图
+     * 位 i（0..8）表示以面值 i 开头的顺子（0 为 A2345，8 为 910JQK），位 9 表示 10JQKA
+     */
+    public int getStraightWindows() {
+        int windows = 0;
+        for (int start = 0; start <= 8; start++) {
+            if (((faceMask >>> start) & 0x1F) == 0x1F) {
+                windows |= 1 << start;
+            }
+        }
+        if ((faceMask & 0x1E01) == 0x1E01) {
+            windows |= 1 << 9; // 10, J, Q, K, A
+        }
+        return windows;
+    }
+
+    /**
+     * 是否有某个花色达到5张（能组成同花）
+     */
+    public boolean hasFlushSuit() {
+        return suitCounts[0] >= 5 || suitCounts[1] >= 5 || suitCounts[2] >= 5 || suitCounts[3] >= 5;
+    }
+
+    /**
+     * 是否有比指定关键牌权重更大的对子
+     * @param criticalWeight 对方对子的关键牌权重（Card.getWeight()）
+     */
+    public boolean hasPairAbove(int criticalWeight) {
+        return lowestAbove(pairMask, 2, criticalWeight) != 0;
+    }
+
+    /**
+     * 是否有比指定关键牌权重更大的三张
+     * @param criticalWeight 对方三张的关键牌权重（Card.getWeight()）
+     */
+    public boolean hasTripleAbove(int criticalWeight) {
+        return lowestAbove(tripleMask, 3, criticalWeight) != 0;
+    }
+
+    /**
+     * 能压过指定关键牌权重的最小对子
+     * @return 对子的52位位图，没有则返回0
+     */
+    public long lowestPairAbove(int criticalWeight) {
+        return lowestAbove(pairMask, 2, criticalWeight);
+    }
+
+    /**
+     * 能压过指定关键牌权重的最小三张
+     * @return 三张的52位位图，没有则返回0
+     */
+    public long lowestTripleAbove(int criticalWeight) {
+        return lowestAbove(tripleMask, 3, criticalWeight);
+    }
+
+    /**
+     * 在候选点数中找出能压过关键牌权重的最小 size 张同点数牌
+     * 关键牌为组合中权重最大的一张，因此同点数时要求最高花色更大，更高点数时取最低的几个花色
+     */
+    private long lowestAbove(int candidates, int size, int criticalWeight) {
+        int criticalOrder = criticalWeight / 10 - 3;
+        int criticalSuit = criticalWeight % 10;
+
+        if (criticalOrder >= 0 && criticalOrder < 13 && (candidates & (1 << criticalOrder)) != 0) {
+            // 同点数：需要一张花色更大的牌做关键牌，其余取最低的花色
+            int suits = rankSuits[criticalOrder];
+            int higher = suits & ~((2 << criticalSuit) - 1);
+            for (; higher != 0; higher &= higher - 1) {
+                // 从小到大尝试每个更大的花色做关键牌，其余牌必须比它小
+                int top = Integer.numberOfTrailingZeros(higher);
+                int rest = suits & ((1 << top) - 1);
+                if (Integer.bitCount(rest) >= size - 1) {
+                    return toCards(criticalOrder, (1 << top) | lowestBits(rest, size - 1));
+                }
+            }
+        }
+
+        int above = criticalOrder < 0 ? candidates : candidates & ~((2 << criticalOrder) - 1);
+        if (above == 0) {
+            return 0;
+        }
+        int order = Integer.numberOfTrailingZeros(above);
+        return toCards(order, lowestBits(rankSuits[order], size));
+    }
+
+    private static int lowestBits(int bits, int count) {
+        int result = 0;
+        for (int i = 0; i < count; i++) {
+            int lowest = bits & -bits;
+            result |= lowest;
+            bits &= ~lowest;
+        }
+        return result;
+    }
+
+    /**
+     * 把某个点数下的花色位图转换为52位位图
+     */
+    private static long toCards(int order, int suits) {
+        int rankValue = (order + 2) % 13;
+        long mask = 0L;
+        while (suits != 0) {
+            int suitWeight = Integer.numberOfTrailingZeros(suits);
+            mask |= 1L << ((3 - suitWeight) * 13 + rankValue);
+            suits &= suits - 1;
+        }
+        return mask;
+    }
+}
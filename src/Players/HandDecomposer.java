@@ -0,0 +1,325 @@
+package Players;
+
+import PokerPatterns.BatchClassifier;
+import PokerPatterns.HistogramClassifier;
+import Rules.MoveGenerator;
+import Rules.Rule;
+import java.util.Arrays;
+
+/**
+ * 手牌最优拆分
+ * 把一手牌拆成尽量少的有效出牌（顺子、三带一对、对子等），同样手数时控制牌越多越好
+ * 控制牌指很难被压过的出牌：以2为关键牌的单张、对子、三张，以及四带一、同花顺
+ *
+ * 对手牌的局部位图做动态规划：把手牌的 n 张牌编号为 0..n-1，dp[S] 为子集 S 的最优得分，
+ * 只枚举包含 S 中最低位那张牌的出牌，避免同一拆分按不同顺序重复计算
+ * 一次求解得到手牌全部子集的最优解，之后手牌随出牌变少时直接由上次的结果还原；
+ * 查询过的手牌的结果保存在有界的四路组相联缓存中（以手牌位图为键）
+ * 实例持有自己的缓冲区与缓存，不能在多个线程间共享
+ */
+public class HandDecomposer {
+    public static final int MAX_HAND_SIZE = 16;     // 局部位图的 dp 表大小为 2^n
+    public static final int UNDECOMPOSABLE = -1;     // 手牌无法拆成有效出牌（规则不允许单张且有落单的牌时）
+    private static final int MAX_PLAYS = MAX_HAND_SIZE;
+    private static final int CACHE_WAYS = 4;
+    private static final byte SCORE_ONLY = -1;       // 缓存项只有得分、没有拆分（由 score 写入）
+    private static final int PLAY_COST = 16;         // 每多一手牌的代价，大于一手牌中最多的控制牌数
+    private static final long TWOS = (1L | 1L << 13 | 1L << 26 | 1L << 39) << 1;
+    private static final long DIAMOND_THREE = 1L << MoveGenerator.DIAMOND_THREE;
+
+    private final Rule rule;
+    private final MoveGenerator generator;
+    private final boolean crossSize; // 不同张数的出牌能否互相压（北方规则）
+
+    // 最近一次动态规划的结果，覆盖 solvedHand 的全部子集
+    private long solvedHand;
+    private int[] dp = new int[1];
+    private long[] choice = new long[1];  // 每个局部子集最优拆分中包含最低位的那手牌（全局位图）
+
+    // 有界缓存：四路组相联，每项保存手牌位图、得分与按出牌键排序的拆分（只查询过得分时拆分手数为 SCORE_ONLY）
+    private final int cacheMask;
+    private final long[] cacheKeys;
+    private final int[] cacheScores;
+    private final long[] cachePlays;
+    private final byte[] cacheCounts;
+    private long hits;
+    private long misses;
+    private final long[] leadPlays = new long[MAX_PLAYS]; // leadPlay 的拆分缓冲区
+
+    public HandDecomposer(Rule rule) {
+        this(rule, 1024);
+    }
+
+    /**
+     * @param rule 决定哪些牌型有效
+     * @param cacheSize 缓存项数，向上取整为2的幂（至少4项）
+     */
+    public HandDecomposer(Rule rule, int cacheSize) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + cacheSize);
+        }
+        this.rule = rule;
+        this.generator = new MoveGenerator(rule);
+        this.crossSize = rule.canCompareKeys(rule.playKey(1L), rule.playKey(1L | 1L << 13));
+        int capacity = Integer.highestOneBit(Math.max(cacheSize, CACHE_WAYS));
+        if (capacity < cacheSize) {
+            capacity <<= 1;
+        }
+        this.cacheMask = capacity - 1;
+        this.cacheKeys = new long[capacity];
+        this.cacheScores = new int[capacity];
+        this.cachePlays = new long[capacity * MAX_PLAYS];
+        this.cacheCounts = new byte[capacity];
+    }
+
+    public Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * 求手牌的最优拆分
+     * @param hand 手牌位图，最多 MAX_HAND_SIZE 张
+     * @param out 输出各手牌的位图，按出牌键从小到大排列，长度至少为手牌张数
+     * @return 拆分的手数，无法拆分时返回 UNDECOMPOSABLE
+     */
+    public int decompose(long hand, long[] out) {
+        if (hand == 0) {
+            return 0;
+        }
+        int slot = find(hand);
+        if (slot >= 0 && cacheCounts[slot] != SCORE_ONLY) {
+            hits++;
+            int count = cacheCounts[slot];
+            System.arraycopy(cachePlays, slot * MAX_PLAYS, out, 0, count);
+            return cacheScores[slot] == UNDECOMPOSABLE ? UNDECOMPOSABLE : count;
+        }
+        misses++;
+        int score = solvedScore(hand);
+        int count = 0;
+        if (score != UNDECOMPOSABLE) {
+            // 由上次求解的结果还原拆分
+            long local = Long.compress(hand, solvedHand);
+            while (local != 0) {
+                long play = choice[(int) local];
+                out[count++] = play;
+                local &= ~Long.compress(play, solvedHand);
+            }
+            sortByKey(out, count);
+        }
+
+        if (slot >= 0) {
+            // score() 已缓存得分，只补上拆分
+            cacheCounts[slot] = (byte) count;
+            System.arraycopy(out, 0, cachePlays, slot * MAX_PLAYS, count);
+        } else {
+            store(hand, score, out, count);
+        }
+        return score == UNDECOMPOSABLE ? UNDECOMPOSABLE : count;
+    }
+
+    /**
+     * 最优拆分的得分：手数 * 16 - 控制牌手数，越小越好；无法拆分时返回 UNDECOMPOSABLE
+     * 未命中时只缓存得分，之后 decompose 同一手牌时再补上拆分
+     */
+    public int score(long hand) {
+        if (hand == 0) {
+            return 0;
+        }
+        int slot = find(hand);
+        if (slot >= 0) {
+            hits++;
+            return cacheScores[slot];
+        }
+        misses++;
+        int score = solvedScore(hand);
+        store(hand, score, null, SCORE_ONLY);
+        return score;
+    }
+
+    /**
+     * 手牌的最优得分，手牌不是上次求解的手牌的子集时先求解
+     */
+    private int solvedScore(long hand) {
+        if ((hand & ~solvedHand) != 0 || solvedHand == 0) {
+            solve(hand);
+        }
+        int score = dp[(int) Long.compress(hand, solvedHand)];
+        return score == Integer.MAX_VALUE ? UNDECOMPOSABLE : score;
+    }
+
+    /**
+     * 按最优拆分选择领出的一手牌
+     * 第一手牌出拆分中包含方块三的那一手；否则出拆分中的非控制牌，全是控制牌时才出控制牌：
+     *   - 不同张数能互相压时（北方规则）出关键牌最小的
+     *   - 否则先出张数最多的，同样张数出关键牌最小的（跟牌必须张数相同，大组合不容易被压）
+     * @param opening 是否为全局第一手牌（必须包含方块三）
+     * @return 出牌位图；手牌为空、超过 MAX_HAND_SIZE 张、无法拆分，或第一手牌时拆分中没有方块三时返回0
+     */
+    public long leadPlay(long hand, boolean opening) {
+        if (hand == 0 || Long.bitCount(hand) > MAX_HAND_SIZE) {
+            return 0L;
+        }
+        int count = decompose(hand, leadPlays);
+        if (count == UNDECOMPOSABLE) {
+            return 0L;
+        }
+        if (opening) {
+            for (int i = 0; i < count; i++) {
+                if ((leadPlays[i] & DIAMOND_THREE) != 0) {
+                    return leadPlays[i];
+                }
+            }
+            return 0L;
+        }
+        long chosen = 0L;
+        long lowestCritical = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            // 控制牌的关键牌放到最后考虑
+            long critical = (rule.playKey(leadPlays[i]) & 0xFF) + (isControl(leadPlays[i]) ? 0x1000 : 0)
+                    - (crossSize ? 0 : Long.bitCount(leadPlays[i]) * 0x100);
+            if (critical < lowestCritical) {
+                lowestCritical = critical;
+                chosen = leadPlays[i];
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * 最优拆分的手数，无法拆分时返回 UNDECOMPOSABLE
+     */
+    public int playCount(long hand) {
+        int score = score(hand);
+        return score == UNDECOMPOSABLE ? UNDECOMPOSABLE : (score + PLAY_COST - 1) / PLAY_COST;
+    }
+
+    /**
+     * 对整手牌做动态规划，得到全部子集的最优解
+     */
+    private void solve(long hand) {
+        int n = Long.bitCount(hand);
+        if (n > MAX_HAND_SIZE) {
+            throw new IllegalArgumentException("Hand too large to decompose: " + n + " cards");
+        }
+        int size = 1 << n;
+        if (dp.length < size) {
+            dp = new int[size];
+            choice = new long[size];
+        }
+
+        // 按最低位分组的全部有效出牌（局部位图），以及每手牌的代价
+        int moves = generator.generate(hand, 0L, false);
+        long[] local = new long[moves];
+        int[] cost = new int[moves];
+        int[] start = new int[n + 1];
+        for (int i = 0; i < moves; i++) {
+            long play = generator.moveAt(i);
+            start[Long.numberOfTrailingZeros(Long.compress(play, hand)) + 1]++;
+        }
+        for (int b = 0; b < n; b++) {
+            start[b + 1] += start[b];
+        }
+        int[] fill = Arrays.copyOf(start, n);
+        long[] global = new long[moves];
+        for (int i = 0; i < moves; i++) {
+            long play = generator.moveAt(i);
+            long bits = Long.compress(play, hand);
+            int j = fill[Long.numberOfTrailingZeros(bits)]++;
+            local[j] = bits;
+            global[j] = play;
+            cost[j] = PLAY_COST - (isControl(play) ? 1 : 0);
+        }
+
+        dp[0] = 0;
+        for (int s = 1; s < size; s++) {
+            int low = Integer.numberOfTrailingZeros(s);
+            int best = Integer.MAX_VALUE;
+            long bestPlay = 0L;
+            for (int j = start[low]; j < start[low + 1]; j++) {
+                long p = local[j];
+                // 剩余部分无法拆分（dp 为 MAX_VALUE）的出牌跳过，否则相加会溢出
+                if ((p & ~s) == 0 && dp[s ^ (int) p] != Integer.MAX_VALUE) {
+                    int value = dp[s ^ (int) p] + cost[j];
+                    if (value < best) {
+                        best = value;
+                        bestPlay = global[j];
+                    }
+                }
+            }
+            dp[s] = best;
+            choice[s] = bestPlay;
+        }
+        solvedHand = hand;
+    }
+
+    /**
+     * 是否为控制牌：以2为关键牌的单张、对子、三张，或四带一、同花顺
+     */
+    public static boolean isControl(long play) {
+        int count = Long.bitCount(play);
+        if (count <= 3) {
+            return (play & TWOS) != 0;
+        }
+        int pattern = HistogramClassifier.patternWeightOf(BatchClassifier.classify(play));
+        return pattern >= 7;
+    }
+
+    private void sortByKey(long[] plays, int count) {
+        // 手数很少，插入排序即可
+        for (int i = 1; i < count; i++) {
+            long play = plays[i];
+            long key = rule.playKey(play) & 0xFFFF;
+            int j = i - 1;
+            while (j >= 0 && (rule.playKey(plays[j]) & 0xFFFF) > key) {
+                plays[j + 1] = plays[j];
+                j--;
+            }
+            plays[j + 1] = play;
+        }
+    }
+
+    /**
+     * 在缓存中查找手牌，返回所在项的下标，没有时返回 -1
+     * 每组 CACHE_WAYS 项，按写入先后排列，最近写入的在组内第一项
+     */
+    private int find(long hand) {
+        int base = slotOf(hand);
+        for (int way = 0; way < CACHE_WAYS; way++) {
+            if (cacheKeys[base + way] == hand) {
+                return base + way;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 写入缓存：组内各项依次后移一位（淘汰最后一项），新结果写入第一项
+     */
+    private void store(long hand, int score, long[] plays, int count) {
+        int base = slotOf(hand);
+        int last = base + CACHE_WAYS - 1;
+        System.arraycopy(cacheKeys, base, cacheKeys, base + 1, CACHE_WAYS - 1);
+        System.arraycopy(cacheScores, base, cacheScores, base + 1, CACHE_WAYS - 1);
+        System.arraycopy(cacheCounts, base, cacheCounts, base + 1, CACHE_WAYS - 1);
+        System.arraycopy(cachePlays, base * MAX_PLAYS, cachePlays, (base + 1) * MAX_PLAYS,
+                (last - base) * MAX_PLAYS);
+        cacheKeys[base] = hand;
+        cacheScores[base] = score;
+        cacheCounts[base] = (byte) count;
+        if (count > 0) {
+            System.arraycopy(plays, 0, cachePlays, base * MAX_PLAYS, count);
+        }
+    }
+
+    private int slotOf(long hand) {
+        return (int) ((hand * 0x9E3779B97F4A7C15L) >>> 40) & cacheMask & -CACHE_WAYS;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,71 @@
+package Players;
+
+import Game.Game;
+import Rules.Rule;
+import cards.Deck;
+
+/**
+ * 手牌拆分求解器的性能测试
+ * 对随机的13张手牌分别测量：首次求解（完整动态规划）、重复查询同一手牌（缓存命中）、
+ * 以及模拟一局中逐手出牌后对剩余手牌的查询（由上次求解的结果直接还原）
+ * 运行：java Players.HandDecomposerBenchmark [手牌数] [north|south]
+ */
+public class HandDecomposerBenchmark {
+    public static void main(String[] args) {
+        int hands = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        Rule rule = args.length > 1 && args[1].equals("south")
+                ? Game.ruleOf(Game.RULE_SOUTH) : Game.ruleOf(Game.RULE_NORTH);
+
+        Deck deck = new Deck(2024L);
+        long[] samples = new long[hands];
+        long[] dealt = new long[4];
+        for (int i = 0; i < hands; i += 4) {
+            deck.reset();
+            deck.dealHands(dealt, 13);
+            for (int p = 0; p < 4 && i + p < hands; p++) {
+                samples[i + p] = dealt[p];
+            }
+        }
+
+        long[] plays = new long[13];
+        for (int round = 1; round <= 3; round++) {
+            // 每轮使用新的求解器，首次求解不受上一轮缓存影响；缓存容量留足，重复查询全部命中
+            HandDecomposer decomposer = new HandDecomposer(rule, 4 * hands);
+            long totalPlays = 0;
+            long start = System.nanoTime();
+            for (long hand : samples) {
+                totalPlays += decomposer.decompose(hand, plays);
+            }
+            long solveTime = System.nanoTime() - start;
+
+            long checksum = 0;
+            start = System.nanoTime();
+            for (int repeat = 0; repeat < 10; repeat++) {
+                for (long hand : samples) {
+                    checksum += decomposer.decompose(hand, plays);
+                }
+            }
+            long hitTime = System.nanoTime() - start;
+
+            // 逐手打出拆分中的第一手，对剩余手牌重新查询（换用新的求解器，只统计剩余手牌的查询）
+            HandDecomposer player = new HandDecomposer(rule, 4096);
+            long queries = 0;
+            long shrinkTime = 0;
+            for (long hand : samples) {
+                player.decompose(hand, plays);
+                long rest = hand & ~plays[0];
+                start = System.nanoTime();
+                for (; rest != 0; queries++) {
+                    player.decompose(rest, plays);
+                    rest &= ~plays[0];
+                }
+                shrinkTime += System.nanoTime() - start;
+            }
+
+            System.out.printf("第%d轮  %s  平均 %.2f 手  首次求解 %.1f us/手牌  重复查询 %.1f ns/次  出牌后查询 %.2f us/次  命中率 %.1f%%  (%d)%n",
+                    round, rule.getRuleName(), (double) totalPlays / hands,
+                    solveTime / 1e3 / hands, (double) hitTime / (10L * hands), shrinkTime / 1e3 / Math.max(queries, 1),
+                    decomposer.getHits() * 100.0 / (decomposer.getHits() + decomposer.getMisses()), checksum);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package Players;
+
+import Rules.MoveGenerator;
+import Rules.Rule;
+
+/**
+ * 启发式出牌策略
+ * 用 MoveGenerator 列出全部合法出牌（含全部8种牌型），对每个出牌按几条简单规则打分，取分数最低者：
+ *   - 能一次出完手牌时直接出
+ *   - 领出时优先出张数多的组合以尽快走牌，同样张数先出小牌
+ *   - 跟牌时出规则顺序下最小的能压过的牌
+ *   - 尽量不拆散对子、三张、四张
+ *   - 手牌较多时保留2作为控制牌，只能用2压时选择不出
+ * 可选按手牌最优拆分领出（HandDecomposer.leadPlay）：领出时出拆分中最小的非控制牌，拆分失败时再按上面的规则打分；
+ * 拆分需要对整手牌做一次动态规划，因此只用于真实牌桌上的AI，ISMCTS 模拟使用不拆分的版本
+ * 首轮出牌必须包含方块三由 MoveGenerator 保证
+ * 不拆分时决策过程不创建对象，每个实例持有自己的缓冲区，不能在多个线程间共享
+ */
+public class HeuristicStrategy implements Strategy {
+    private static final long FACE_COLUMN = 1L | 1L << 13 | 1L << 26 | 1L << 39; // 面值为 A 的四张牌
+    private static final long TWOS = FACE_COLUMN << 1;                           // 四张 2
+
+    // 分值单位与标准关键牌权重一致：相邻点数相差10
+    private static final int SHED_BONUS = 200;      // 领出时每多出一张牌的奖励
+    private static final int BREAK_PENALTY = 40;    // 每拆散一组同点数牌的惩罚
+    private static final int CONTROL_PENALTY = 80;  // 每用掉一张2的惩罚
+    private static final int ENDGAME_CARDS = 5;     // 手牌不多于此数时不再保留控制牌
+
+    private final MoveGenerator generator;
+    private final HandDecomposer decomposer; // 按拆分领出时使用，否则为null
+
+    public HeuristicStrategy(Rule rule) {
+        this(rule, false);
+    }
+
+    /**
+     * @param rule 判断出牌合法性的规则
+     * @param decomposeLeads 领出时是否按手牌最优拆分出牌
+     */
+    public HeuristicStrategy(Rule rule, boolean decomposeLeads) {
+        this.generator = new MoveGenerator(rule);
+        this.decomposer = decomposeLeads ? new HandDecomposer(rule) : null;
+    }
+
+    public Rule getRule() {
+        return generator.getRule();
+    }
+
+    @Override
+    public long choosePlay(long hand, long lastPlay, boolean opening) {
+        int count = generator.generate(hand, lastPlay, opening);
+        if (count == 0) {
+            return 0L; // 压不过只能过牌
+        }
+        int handSize = Long.bitCount(hand);
+        boolean saveControl = handSize > ENDGAME_CARDS;
+        boolean leading = lastPlay == 0;
+        if (leading && decomposer != null) {
+            long lead = decomposer.leadPlay(hand, opening);
+            if (lead != 0L) {
+                return lead;
+            }
+        }
+
+        long best = 0L;
+        int bestScore = Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            long move = generator.moveAt(i);
+            int cards = Long.bitCount(move);
+            if (cards == handSize) {
+                return move; // 出完即胜
+            }
+            long key = generator.keyAt(i);
+            int score = leading
+                    ? (int) (key & 0xFF) - cards * SHED_BONUS   // 领出：张数优先，其次关键牌小
+                    : (int) (key & 0xFFFF);                     // 跟牌：规则顺序下越小越好
+            score += breaks(hand, move) * BREAK_PENALTY;
+            if (saveControl) {
+                score += Long.bitCount(move & TWOS) * CONTROL_PENALTY;
+            }
+            if (score < bestScore) {
+                bestScore = score;
+                best = move;
+            }
+        }
+
+        // 跟牌时如果最好的选择也要动用2，且出完后手牌仍多，则保留控制牌选择不出
+        if (!leading && saveControl && (best & TWOS) != 0
+                && handSize - Long.bitCount(best) > ENDGAME_CARDS) {
+            return 0L;
+        }
+        return best;
+    }
+
+    /**
+     * 出牌拆散了几组同点数的牌：某面值只出了手中该面值的一部分
+     * （从对子中出一张、从三张中出一对等都算拆散）
+     */
+    private static int breaks(long hand, long move) {
+        int broken = 0;
+        long faces = move | move >>> 13 | move >>> 26 | move >>> 39;
+        for (int rest = (int) faces & 0x1FFF; rest != 0; rest &= rest - 1) {
+            long column = FACE_COLUMN << Integer.numberOfTrailingZeros(rest);
+            int held = Long.bitCount(hand & column);
+            int used = Long.bitCount(move & column);
+            if (used < held && held >= 2) {
+                broken++;
+            }
+        }
+        return broken;
+    }
+}
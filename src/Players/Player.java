@@ -1,6 +1,8 @@
 package Players;
 
+import Rules.Rule;
 import cards.Card;
+import cards.CardSet;
 import cards.Deck; // 导入 Deck 类
 import java.util.ArrayList; // 导入 Rank 类
 import java.util.Collections; // 导入 Suit 类
@@ -10,8 +12,15 @@ import java.util.Scanner; // 导入 Comparator
 
 public class Player {
     private String name;
-    private List<Card> hand; // 玩家手牌
+    private final CardSet hand; // 玩家手牌（位图表示）
+    private List<Card> handView; // 按权重从大到小排列的手牌视图，手牌变化时失效
+    private final HandAnalysis analysis = new HandAnalysis(); // 随手牌增量维护的分析索引
+    private ResponseIndex responseIndex; // 应对索引，首次查询时按规则建立，出牌时增量维护，收牌时失效
+    private HandDecomposer decomposer; // 手牌拆分求解器，首次查询时按规则建立
+    private Rule gameRule;   // 本局使用的规则，由 GamePlayManager 在出牌前设置
+    private TableView table; // 牌桌公开信息，由 GamePlayManager 在出牌前设置
     private boolean isAI;    // 是否为AI玩家
+    private Strategy strategy; // AI出牌策略，为null时使用 AIStrategy 的简单策略
     private int lastPlayerIndex;  // 上一个出牌的玩家索引
     private int currentPlayerIndex;  // 当前玩家索引
 
@@ -30,7 +39,7 @@ public class Player {
      */
     public Player(String name, boolean isAI) {
         this.name = name;
-        this.hand = new ArrayList<>(); // 初始化手牌为空列表
+        this.hand = new CardSet(); // 初始化手牌为空集合
         this.isAI = isAI;
         this.lastPlayerIndex = -1;
         this.currentPlayerIndex = -1;
@@ -41,21 +50,129 @@ public class Player {
     }
 
     public List<Card> getHand() {
-        // 返回不可变视图 Collections.unmodifiableList(hand)
-        return Collections.unmodifiableList(hand); // 返回不可变视图
+        // 返回按权重从大到小排列的不可变视图，手牌未变化时复用
+        if (handView == null) {
+            handView = Collections.unmodifiableList(hand.toDescendingList());
+        }
+        return handView;
+    }
+
+    /**
+     * 获取手牌的集合副本
+     */
+    public CardSet getHandSet() {
+        return hand.copy();
+    }
+
+    /**
+     * 获取手牌的52位位图
+     */
+    public long getHandMask() {
+        return hand.getMask();
+    }
+
+    /**
+     * 判断手牌中是否有指定intValue的牌
+     */
+    public boolean hasCard(int intValue) {
+        return hand.contains(intValue);
+    }
+
+    /**
+     * 获取手牌分析索引（各点数/花色张数、对子、三张、顺子等），随手牌变化实时更新
+     */
+    public HandAnalysis getAnalysis() {
+        return analysis;
+    }
+
+    /**
+     * 获取按指定规则建立的应对索引，规则变化或手牌增加后会重新建立
+     */
+    public ResponseIndex getResponseIndex(Rule rule) {
+        if (responseIndex == null || responseIndex.getRule() != rule) {
+            responseIndex = new ResponseIndex(rule, hand.getMask());
+        }
+        return responseIndex;
+    }
+
+    /**
+     * 手牌中能压过上一手牌的最小出牌
+     * @param rule 比较所用的规则
+     * @param lastPlay 上一手牌位图
+     * @return 出牌位图，没有能压过的牌时返回0
+     */
+    public long findCheapestBeating(Rule rule, long lastPlay) {
+        return getResponseIndex(rule).cheapestBeating(lastPlay);
+    }
+
+    /**
+     * 获取按指定规则建立的手牌拆分求解器，规则变化时重新建立
+     * 求解器自带缓存，手牌变化后无需重建
+     */
+    public HandDecomposer getDecomposer(Rule rule) {
+        if (decomposer == null || decomposer.getRule() != rule) {
+            decomposer = new HandDecomposer(rule);
+        }
+        return decomposer;
+    }
+
+    public Rule getGameRule() {
+        return gameRule;
+    }
+
+    public void setGameRule(Rule gameRule) {
+        this.gameRule = gameRule;
+    }
+
+    public TableView getTable() {
+        return table;
+    }
+
+    public void setTable(TableView table) {
+        this.table = table;
     }
     
     public boolean isAI() {
         return isAI;
     }
 
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * 设置AI出牌策略
+     * @param strategy 出牌策略，为null时使用 AIStrategy 的简单策略
+     */
+    public void setStrategy(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
     /**
      * 玩家接收一张牌
      * @param card 要接收的牌
      */
     public void receiveCard(Card card) {
-        if (card != null) {
-            hand.add(card);
+        if (card != null && hand.add(card)) {
+            analysis.add(card.getIntValue());
+            handView = null;
+            responseIndex = null;
+        }
+    }
+
+    /**
+     * 玩家接收一组牌
+     * @param cards 要接收的牌
+     */
+    public void receiveCards(CardSet cards) {
+        long added = cards.getMask() & ~hand.getMask();
+        for (long bits = added; bits != 0; bits &= bits - 1) {
+            analysis.add(Long.numberOfTrailingZeros(bits));
+        }
+        hand.addAll(cards);
+        handView = null;
+        if (added != 0) {
+            responseIndex = null;
         }
     }
 
@@ -81,10 +198,9 @@ public class Player {
     /**
      * 对玩家手牌进行排序
      * 排序规则：使用复合权重排序，牌面值权重占主导地位（方片2 > 黑桃A）
+     * 手牌以位图保存，getHand() 总是按权重从大到小给出，因此这里无需再做排序
      */
     public void sortHand() {
-        // 使用Lambda表达式直接使用Card的getWeight方法排序
-        Collections.sort(hand, (card1, card2) -> card2.getWeight() - card1.getWeight());
     }
     
     /**
@@ -93,9 +209,11 @@ public class Player {
      * @return 出的牌列表
      */
     public List<Card> playCards(List<Integer> cardIndices) {
+        List<Card> handList = getHand();
+
         // 验证索引是否有效
         for (int index : cardIndices) {
-            if (index < 0 || index >= hand.size()) {
+            if (index < 0 || index >= handList.size()) {
                 System.out.println("无效的卡牌索引: " + index);
                 return Collections.emptyList();
             }
@@ -104,7 +222,7 @@ public class Player {
         // 按照索引从手牌中取出卡牌
         List<Card> playedCards = new ArrayList<>();
         for (int index : cardIndices) {
-            playedCards.add(hand.get(index));
+            playedCards.add(handList.get(index));
         }
         
         return playedCards;
@@ -115,7 +233,52 @@ public class Player {
      * @param cards 要移除的牌列表
      */
     public void removeCards(List<Card> cards) {
-        hand.removeAll(cards);
+        removeCards(CardSet.fromList(cards));
+    }
+
+    /**
+     * 从手牌中移除指定的牌
+     * @param cards 要移除的牌集合
+     */
+    public void removeCards(CardSet cards) {
+        removeCards(cards.getMask());
+    }
+
+    /**
+     * 从手牌中移除位图中的牌，不创建对象，供搜索反复调用
+     * @param cards 要移除的牌位图
+     */
+    public void removeCards(long cards) {
+        long removed = cards & hand.getMask();
+        for (long bits = removed; bits != 0; bits &= bits - 1) {
+            analysis.remove(Long.numberOfTrailingZeros(bits));
+        }
+        if (responseIndex != null) {
+            responseIndex.removeCards(removed);
+        }
+        hand.removeAll(removed);
+        handView = null;
+    }
+
+    /**
+     * 把之前移除的牌放回手牌（removeCards(long) 的逆操作）
+     * 与 receiveCards 不同，放回的牌都在应对索引建立时的手牌中时，索引增量恢复而不是重建
+     * @param cards 要放回的牌位图
+     */
+    public void restoreCards(long cards) {
+        long added = cards & CardSet.FULL_DECK & ~hand.getMask();
+        for (long bits = added; bits != 0; bits &= bits - 1) {
+            analysis.add(Long.numberOfTrailingZeros(bits));
+        }
+        if (responseIndex != null) {
+            if (responseIndex.covers(added)) {
+                responseIndex.restoreCards(added);
+            } else {
+                responseIndex = null;
+            }
+        }
+        hand.addAll(added);
+        handView = null;
     }
     
     /**
@@ -126,6 +289,9 @@ public class Player {
     public List<Card> play(List<Card> lastCards) {
         if (isAI) {
             // 使用AI策略出牌
+            if (strategy != null) {
+                return playByStrategy(lastCards);
+            }
             return AIStrategy.makeDecision(this, lastCards);
         } else {
             // 人类玩家交互式出牌
@@ -133,6 +299,18 @@ public class Player {
         }
     }
     
+    /**
+     * 由出牌策略决定出牌
+     * 没有上一手牌时为全局第一手；上一个出牌的就是自己时（其他玩家都过牌）由自己领出
+     */
+    private List<Card> playByStrategy(List<Card> lastCards) {
+        boolean opening = lastCards == null;
+        boolean leading = opening || lastPlayerIndex == currentPlayerIndex;
+        long lastPlay = leading ? 0L : CardSet.maskOf(lastCards);
+        long move = strategy.choosePlay(hand.getMask(), lastPlay, opening, table);
+        return move == 0L ? Collections.emptyList() : CardSet.of(move).toList();
+    }
+    
     /**
      * 人类玩家交互式出牌
      * @param lastCards 上一手牌
@@ -140,11 +318,12 @@ public class Player {
      */
     private List<Card> humanPlay(List<Card> lastCards) {
         Scanner scanner = new Scanner(System.in);
+        List<Card> handList = getHand();
         
         // 显示手牌
         System.out.println(name + "的手牌：");
-        for (int i = 0; i < hand.size(); i++) {
-            System.out.println((i + 1) + ". " + hand.get(i).getDisplayName());
+        for (int i = 0; i < handList.size(); i++) {
+            System.out.println((i + 1) + ". " + handList.get(i).getDisplayName());
         }
         
         // 显示上一手牌（如果有）
@@ -171,7 +350,7 @@ public class Player {
             String[] indexStrings = input.split("\\s+");
             for (String indexStr : indexStrings) {
                 int index = Integer.parseInt(indexStr) - 1; // 转换为0基索引
-                if (index < 0 || index >= hand.size()) {
+                if (index < 0 || index >= handList.size()) {
                     System.out.println("无效的卡牌索引: " + (index + 1));
                     return humanPlay(lastCards); // 递归调用，让用户重新选择
                 }
@@ -191,7 +370,7 @@ public class Player {
         System.out.print("你选择了: ");
         List<Card> selectedCards = new ArrayList<>();
         for (int index : cardIndices) {
-            Card card = hand.get(index);
+            Card card = handList.get(index);
             selectedCards.add(card);
             System.out.print(card.getDisplayName() + " ");
         }
@@ -206,9 +385,10 @@ public class Player {
      * @return 对应的卡牌索引列表
      */
     public List<Integer> findCardIndicesByRank(String rankDisplayName) {
+        List<Card> handList = getHand();
         List<Integer> indices = new ArrayList<>();
-        for (int i = 0; i < hand.size(); i++) {
-            if (hand.get(i).getRank().getDisplayName().equals(rankDisplayName)) {
+        for (int i = 0; i < handList.size(); i++) {
+            if (handList.get(i).getRank().getDisplayName().equals(rankDisplayName)) {
                 indices.add(i);
             }
         }
@@ -217,6 +397,9 @@ public class Player {
     //清空玩家手牌
     public void clearHand(){
     hand.clear();
+    analysis.clear();
+    handView = null;
+    responseIndex = null;
 }
 
     public void setLastPlayerIndex(int index) {
@@ -0,0 +1,249 @@
+package Players;
+
+import Rules.MoveGenerator;
+import Rules.PlayKey;
+import Rules.Rule;
+import java.util.Arrays;
+
+/**
+ * 应对索引：回答“手牌中能压过上一手牌的最小出牌是什么”
+ * 建立时用 MoveGenerator 列出手牌能组成的全部有效出牌，按规则的出牌键排序；
+ * 出牌键先按可比较类别、再按大小排列，因此能压过某手牌的候选正好是有序数组中的一段连续区间，
+ * 二分查找即可定位，北方规则跨张数比较时全部候选同属一类，同样适用
+ * 手牌中的牌离手后，用每张牌对应的候选列表把失效的候选从存活位图中清除；
+ * 存活位图带一层摘要（每位表示一个64位字是否非零），查找下一个存活候选不必逐字扫描
+ * “最小”指规则顺序下出牌键最小的出牌
+ */
+public class ResponseIndex {
+    private final Rule rule;
+    private final long[] keys;     // 按出牌键升序
+    private final long[] plays;    // 与 keys 对应的出牌位图
+    private final long[] alive;    // 存活候选位图
+    private final long[] summary;  // 位 w 表示 alive[w] 非零
+    private final int[] cardStart; // cardPlays[cardStart[v] .. cardStart[v + 1]) 为包含牌 v 的候选下标
+    private final int[] cardPlays;
+    private final long built;      // 建立索引时的手牌
+    private long hand;
+    private int aliveCount;
+
+    /**
+     * 为一手牌建立索引
+     * @param rule 比较所用的规则
+     * @param hand 手牌位图
+     */
+    public ResponseIndex(Rule rule, long hand) {
+        this.rule = rule;
+        this.built = hand;
+        this.hand = hand;
+
+        MoveGenerator generator = new MoveGenerator(rule);
+        int size = generator.generate(hand, 0L, false);
+
+        // 低32位放原下标，高位放去掉有效标志的出牌键，排序后即为按键排列的下标
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (generator.keyAt(i) & 0xFFFFFFFFL) << 32 | i;
+        }
+        Arrays.sort(order);
+        this.keys = new long[size];
+        this.plays = new long[size];
+        for (int i = 0; i < size; i++) {
+            int source = (int) order[i];
+            keys[i] = generator.keyAt(source);
+            plays[i] = generator.moveAt(source);
+        }
+
+        this.alive = new long[(size + 63) >>> 6];
+        this.summary = new long[(alive.length + 63) >>> 6];
+        for (int i = 0; i < size; i++) {
+            alive[i >>> 6] |= 1L << i;
+        }
+        for (int w = 0; w < alive.length; w++) {
+            summary[w >>> 6] |= 1L << w;
+        }
+        this.aliveCount = size;
+
+        // 按牌建立候选倒排表
+        this.cardStart = new int[53];
+        for (long play : plays) {
+            for (long bits = play; bits != 0; bits &= bits - 1) {
+                cardStart[Long.numberOfTrailingZeros(bits) + 1]++;
+            }
+        }
+        for (int v = 0; v < 52; v++) {
+            cardStart[v + 1] += cardStart[v];
+        }
+        this.cardPlays = new int[cardStart[52]];
+        int[] fill = Arrays.copyOf(cardStart, 52);
+        for (int i = 0; i < size; i++) {
+            for (long bits = plays[i]; bits != 0; bits &= bits - 1) {
+                cardPlays[fill[Long.numberOfTrailingZeros(bits)]++] = i;
+            }
+        }
+    }
+
+    public Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * 当前手牌位图（建立后移除的牌已去掉）
+     */
+    public long getHand() {
+        return hand;
+    }
+
+    /**
+     * 这些牌是否都在建立索引时的手牌中（只有这样的牌才能用 restoreCards 放回）
+     */
+    public boolean covers(long mask) {
+        return (mask & ~built) == 0;
+    }
+
+    /**
+     * 仍然可出的候选数
+     */
+    public int getAliveCount() {
+        return aliveCount;
+    }
+
+    /**
+     * 一张牌离开手牌，包含它的候选全部失效
+     */
+    public void removeCard(int intValue) {
+        long bit = 1L << intValue;
+        if ((hand & bit) == 0) {
+            return;
+        }
+        hand &= ~bit;
+        for (int j = cardStart[intValue]; j < cardStart[intValue + 1]; j++) {
+            int i = cardPlays[j];
+            int w = i >>> 6;
+            if ((alive[w] & (1L << i)) != 0) {
+                alive[w] &= ~(1L << i);
+                aliveCount--;
+                if (alive[w] == 0) {
+                    summary[w >>> 6] &= ~(1L << w);
+                }
+            }
+        }
+    }
+
+    /**
+     * 一组牌离开手牌
+     */
+    public void removeCards(long mask) {
+        for (long bits = mask & hand; bits != 0; bits &= bits - 1) {
+            removeCard(Long.numberOfTrailingZeros(bits));
+        }
+    }
+
+    /**
+     * 之前移除的一张牌回到手牌，全部牌都在手中的候选重新可出
+     * 只能放回建立索引时手牌中已有的牌（见 covers），其他牌组成的出牌不在索引里
+     */
+    public void restoreCard(int intValue) {
+        long bit = 1L << intValue;
+        if ((hand & bit) != 0) {
+            return;
+        }
+        hand |= bit;
+        for (int j = cardStart[intValue]; j < cardStart[intValue + 1]; j++) {
+            int i = cardPlays[j];
+            int w = i >>> 6;
+            if ((plays[i] & ~hand) == 0 && (alive[w] & (1L << i)) == 0) {
+                alive[w] |= 1L << i;
+                aliveCount++;
+                summary[w >>> 6] |= 1L << w;
+            }
+        }
+    }
+
+    /**
+     * 一组之前移除的牌回到手牌
+     */
+    public void restoreCards(long mask) {
+        for (long bits = mask & ~hand; bits != 0; bits &= bits - 1) {
+            restoreCard(Long.numberOfTrailingZeros(bits));
+        }
+    }
+
+    /**
+     * 能压过上一手牌的最小出牌
+     * @param lastPlay 上一手牌位图
+     * @return 出牌位图，没有能压过的牌（或上一手牌无效）时返回0
+     */
+    public long cheapestBeating(long lastPlay) {
+        return cheapestBeatingKey(rule.playKey(lastPlay));
+    }
+
+    /**
+     * 能压过指定出牌键的最小出牌
+     * @param lastKey 上一手牌在本规则下的出牌键
+     * @return 出牌位图，没有时返回0
+     */
+    public long cheapestBeatingKey(long lastKey) {
+        if (!PlayKey.isValid(lastKey)) {
+            return 0L;
+        }
+        // 同类别中比 lastKey 大的键位于 (lastKey, classMax(lastKey)] 区间
+        int from = upperBound(lastKey);
+        int to = upperBound(PlayKey.classMax(lastKey));
+        int i = nextAlive(from);
+        return i >= 0 && i < to ? plays[i] : 0L;
+    }
+
+    /**
+     * 规则顺序下最小的可出牌（领出时使用），没有时返回0
+     */
+    public long cheapestPlay() {
+        int i = nextAlive(0);
+        return i >= 0 ? plays[i] : 0L;
+    }
+
+    /**
+     * 第一个键大于 key 的下标
+     */
+    private int upperBound(long key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 下标不小于 from 的第一个存活候选，没有时返回 -1
+     */
+    private int nextAlive(int from) {
+        int w = from >>> 6;
+        if (w >= alive.length) {
+            return -1;
+        }
+        long word = alive[w] & (-1L << from);
+        if (word != 0) {
+            return (w << 6) + Long.numberOfTrailingZeros(word);
+        }
+        // 在摘要中找下一个非零字
+        int next = w + 1;
+        int s = next >>> 6;
+        if (s >= summary.length) {
+            return -1;
+        }
+        long bits = summary[s] & (-1L << next);
+        while (bits == 0) {
+            if (++s >= summary.length) {
+                return -1;
+            }
+            bits = summary[s];
+        }
+        int word2 = (s << 6) + Long.numberOfTrailingZeros(bits);
+        return (word2 << 6) + Long.numberOfTrailingZeros(alive[word2]);
+    }
+}
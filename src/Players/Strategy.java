@@ -0,0 +1,25 @@
+package Players;
+
+/**
+ * AI 出牌策略
+ * 以52位位图表示手牌与出牌，便于在模拟与搜索中大量调用
+ */
+public interface Strategy {
+    /**
+     * 选择要出的牌
+     * @param hand 自己的手牌位图
+     * @param lastPlay 需要压过的上一手牌，0 表示由自己领出（必须出牌）
+     * @param opening 是否为全局第一手牌（必须包含方块三）
+     * @return 出牌位图，0 表示过牌（只有 lastPlay 不为0时才允许）
+     */
+    long choosePlay(long hand, long lastPlay, boolean opening);
+
+    /**
+     * 选择要出的牌，可以参考牌桌上的公开信息
+     * 默认忽略牌桌信息；需要推断对手手牌的策略（如 Game.IsmctsStrategy）覆盖此方法
+     * @param table 牌桌公开信息，为null时等同于 choosePlay(hand, lastPlay, opening)
+     */
+    default long choosePlay(long hand, long lastPlay, boolean opening, TableView table) {
+        return choosePlay(hand, lastPlay, opening);
+    }
+}
@@ -0,0 +1,41 @@
+package Players;
+
+/**
+ * 牌桌上的公开信息
+ * 供需要推断对手手牌的策略使用：已出过的牌、各家剩余张数、轮到谁以及需要压过的上一手牌
+ */
+public interface TableView {
+    int getPlayerCount();
+
+    /**
+     * 轮到出牌的玩家索引
+     */
+    int getCurrentPlayerIndex();
+
+    /**
+     * 上一手实际出牌的玩家索引，还没有人出牌时为 -1
+     */
+    int getLastPlayerIndex();
+
+    /**
+     * 上一手实际出的牌，还没有人出牌时为0
+     */
+    long getLastPlayedMask();
+
+    /**
+     * 本局所有玩家已经出过的牌
+     */
+    long getPlayedMask();
+
+    /**
+     * 指定玩家剩余的手牌张数
+     */
+    int getHandSize(int playerIndex);
+
+    /**
+     * 由过牌推断指定玩家不可能持有的牌（软约束），默认没有推断
+     */
+    default long getExcludedMask(int playerIndex) {
+        return 0L;
+    }
+}
@@ -0,0 +1,111 @@
+package PokerPatterns;
+
+import cards.Card;
+
+/**
+ * 批量牌型判断
+ * 把一批以52位位图表示的牌组一次判断完，结果写入 int 数组，与 HistogramClassifier.classify(long) 完全一致
+ *
+ * 不逐张遍历，而是按位切片（SWAR）：位图按花色切成4行13位的面值位图，
+ * 行与行之间做位运算即可同时得到全部13个面值的直方图：
+ *   任一行有    -> 出现过的面值
+ *   任两行都有  -> 张数 >= 2 的面值
+ *   任三行都有  -> 张数 >= 3 的面值
+ *   四行都有    -> 张数 == 4 的面值
+ * 同花只需判断非空的行是否只有一行。每个牌组只有十几次位运算，没有依赖牌数的循环与分支，
+ * 适合一次判断大量候选出牌
+ */
+public final class BatchClassifier {
+    private static final int ROW = 0x1FFF;       // 一行13位
+    private static final int BROADWAY = 0x1E01; // 10JQKA
+
+    private BatchClassifier() {}
+
+    /**
+     * 批量判断
+     * @param masks 牌组位图
+     * @param count 判断 masks 的前 count 项
+     * @param out 结果，out[i] 为 masks[i] 的打包结果（牌型权重 << 8 | 关键牌权重），0 表示无效
+     */
+    public static void classifyAll(long[] masks, int count, int[] out) {
+        if (count > masks.length || count > out.length) {
+            throw new IllegalArgumentException("Batch size " + count + " exceeds array length");
+        }
+        for (int i = 0; i < count; i++) {
+            out[i] = classify(masks[i]);
+        }
+    }
+
+    /**
+     * 用位切片方式判断单个位图，结果与 HistogramClassifier.classify(long) 一致
+     */
+    public static int classify(long mask) {
+        int n = Long.bitCount(mask);
+        if (n != 1 && n != 2 && n != 3 && n != 5) {
+            return HistogramClassifier.INVALID;
+        }
+        int s0 = (int) mask & ROW;
+        int s1 = (int) (mask >>> 13) & ROW;
+        int s2 = (int) (mask >>> 26) & ROW;
+        int s3 = (int) (mask >>> 39) & ROW;
+
+        int faces = s0 | s1 | s2 | s3;
+        int twoPlus = (s0 & s1) | (s0 & s2) | (s0 & s3) | (s1 & s2) | (s1 & s3) | (s2 & s3);
+        int threePlus = (s0 & s1 & (s2 | s3)) | (s2 & s3 & (s0 | s1));
+        int four = s0 & s1 & s2 & s3;
+
+        switch (n) {
+            case 1:
+                return HistogramClassifier.pack(1, Card.weightOf(Long.numberOfTrailingZeros(mask)));
+            case 2:
+                return twoPlus != 0 ? HistogramClassifier.pack(2, topWeight(faces, s0, s1, s2)) : HistogramClassifier.INVALID;
+            case 3:
+                return threePlus != 0 ? HistogramClassifier.pack(3, topWeight(faces, s0, s1, s2)) : HistogramClassifier.INVALID;
+            default:
+                break;
+        }
+
+        if (four != 0) {
+            // 四张都在，intValue 最大的一张在方片行
+            return HistogramClassifier.pack(7, Card.weightOf(39 + Integer.numberOfTrailingZeros(four)));
+        }
+        if (threePlus != 0) {
+            // 三带一对只有两种面值；主牌取 intValue 最大（花色行号最大）的一张
+            return Integer.bitCount(faces) == 2
+                    ? HistogramClassifier.pack(6, Card.weightOf(highestCard(threePlus, s1, s2, s3)))
+                    : HistogramClassifier.INVALID;
+        }
+        if (twoPlus != 0) {
+            return HistogramClassifier.INVALID;
+        }
+
+        // 五个不同面值：每个面值只在一行出现
+        int rows = (s0 != 0 ? 1 : 0) + (s1 != 0 ? 1 : 0) + (s2 != 0 ? 1 : 0) + (s3 != 0 ? 1 : 0);
+        boolean flush = rows == 1;
+        boolean straight = faces == BROADWAY || faces == (0x1F << Integer.numberOfTrailingZeros(faces));
+        int topFace = faces == BROADWAY ? 0 : 31 - Integer.numberOfLeadingZeros(faces);
+        int critical = Card.weightOf(highestCard(1 << topFace, s1, s2, s3));
+        if (straight) {
+            return HistogramClassifier.pack(flush ? 8 : 4, critical);
+        }
+        return flush ? HistogramClassifier.pack(5, critical) : HistogramClassifier.INVALID;
+    }
+
+    /**
+     * 单一面值（对子、三张）中权重最大的牌：花色行号最小的一张
+     */
+    private static int topWeight(int face, int s0, int s1, int s2) {
+        int f = Integer.numberOfTrailingZeros(face);
+        int row = (s0 & face) != 0 ? 0 : (s1 & face) != 0 ? 1 : (s2 & face) != 0 ? 2 : 3;
+        return Card.weightOf(row * 13 + f);
+    }
+
+    /**
+     * 某个面值在位图中 intValue 最大的一张牌：花色行号最大的一张
+     */
+    private static int highestCard(int face, int s1, int s2, int s3) {
+        int f = Integer.numberOfTrailingZeros(face);
+        int row = (s3 & face) != 0 ? 3 : (s2 & face) != 0 ? 2 : (s1 & face) != 0 ? 1 : 0;
+        return row * 13 + f;
+    }
+}
@@ -0,0 +1,302 @@
+package PokerPatterns;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.zip.CRC32;
+import cards.Card;
+import cards.CombinatorialIndex;
+
+/**
+ * 5张牌型查找表
+ * 对全部 C(52,5) = 2,598,960 种组合预先算好牌型，以组合数索引（CombinatorialIndex.rank5）为下标，
+ * 每项为 HistogramClassifier 的打包结果（牌型权重 << 8 | 关键牌权重），共约 10 MB
+ * 首次使用时用 fork/join 并行构建
+ *
+ * 也可以把表写入带版本号与校验和的二进制文件，之后的进程以只读方式内存映射该文件，
+ * 多个进程共享同一份页缓存，省去每次启动时的构建；文件缺失或过期时回退为重新计算
+ * 文件格式（小端）：
+ *   0  int   魔数 "CDDT"
+ *   4  int   文件格式版本
+ *   8  int   表内容版本（判断逻辑变化时递增）
+ *   12 int   表项数
+ *   16 long  表项数据的 CRC32
+ *   24 long  保留
+ *   32 int[] 表项
+ */
+public final class FiveCardTable {
+    private static final int SIZE = CombinatorialIndex.FIVE_CARD_COUNT;
+    private static final int LEAF_SIZE = 1 << 14; // 每个子任务处理的组合数
+
+    private static final int MAGIC = 0x43444454;  // "CDDT"
+    private static final int FILE_VERSION = 1;
+    private static final int TABLE_VERSION = 1;   // HistogramClassifier 的打包格式或判断逻辑变化时递增
+    private static final int HEADER_SIZE = 32;
+    private static final ValueLayout.OfInt ENTRY_LAYOUT = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    // 设置后全局实例优先从该文件映射，文件缺失或过期时重新计算并写回
+    public static final String FILE_PROPERTY = "cddd.patternTable.file";
+
+    private final int[] entries;          // 内存中构建的表；映射文件时为 null
+    private final MemorySegment mapped;   // 映射文件中的表项部分；内存中构建时为 null
+
+    private FiveCardTable(int[] entries) {
+        this.entries = entries;
+        this.mapped = null;
+    }
+
+    private FiveCardTable(MemorySegment mapped) {
+        this.entries = null;
+        this.mapped = mapped;
+    }
+
+    /**
+     * 懒加载的全局实例，首次访问时构建（或从 cddd.patternTable.file 指定的文件映射）
+     */
+    private static final class Holder {
+        static final FiveCardTable INSTANCE = createDefault();
+
+        private static FiveCardTable createDefault() {
+            String file = System.getProperty(FILE_PROPERTY);
+            return file == null ? build() : loadOrBuild(Paths.get(file));
+        }
+    }
+
+    /**
+     * 获取全局查找表，首次调用时并行构建
+     */
+    public static FiveCardTable getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * 在 ForkJoinPool 公共池中并行构建一张新表
+     */
+    public static FiveCardTable build() {
+        int[] entries = new int[SIZE];
+        ForkJoinPool.commonPool().invoke(new BuildTask(entries, 0, SIZE));
+        return new FiveCardTable(entries);
+    }
+
+    /**
+     * 查询5张牌的打包结果
+     * @param mask 恰好5位为1的52位位图
+     * @return 牌型权重 << 8 | 关键牌权重，0 表示无效牌型
+     */
+    public int lookup(long mask) {
+        return get(CombinatorialIndex.rank5(mask));
+    }
+
+    private int get(int index) {
+        return entries != null ? entries[index] : mapped.getAtIndex(ENTRY_LAYOUT, index);
+    }
+
+    /**
+     * 表项总数
+     */
+    public int size() {
+        return SIZE;
+    }
+
+    /**
+     * 是否来自内存映射的文件
+     */
+    public boolean isMapped() {
+        return mapped != null;
+    }
+
+    /**
+     * 把表写入文件：先写临时文件再原子替换，其他进程不会读到写了一半的文件
+     * @param file 目标文件
+     */
+    public void save(Path file) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(SIZE * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < SIZE; i++) {
+            payload.putInt(get(i));
+        }
+        payload.flip();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(FILE_VERSION).putInt(TABLE_VERSION).putInt(SIZE).putLong(crc.getValue()).putLong(0L);
+        header.flip();
+
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (payload.hasRemaining()) {
+                channel.write(payload);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 以只读方式内存映射文件中的表
+     * 映射的内存随返回对象一起被回收
+     * @param file 由 save 写出的文件
+     * @return 映射的表；文件不存在、版本不符或校验和不一致时返回 null
+     */
+    public static FiveCardTable load(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long expectedSize = HEADER_SIZE + (long) SIZE * 4;
+            if (channel.size() != expectedSize) {
+                return null;
+            }
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, expectedSize, Arena.ofAuto());
+            ValueLayout.OfInt headerInt = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+            ValueLayout.OfLong headerLong = ValueLayout.JAVA_LONG.withOrder(ByteOrder.LITTLE_ENDIAN);
+            if (segment.get(headerInt, 0) != MAGIC
+                    || segment.get(headerInt, 4) != FILE_VERSION
+                    || segment.get(headerInt, 8) != TABLE_VERSION
+                    || segment.get(headerInt, 12) != SIZE) {
+                return null;
+            }
+            MemorySegment payload = segment.asSlice(HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            crc.update(payload.asByteBuffer());
+            if (crc.getValue() != segment.get(headerLong, 16)) {
+                return null;
+            }
+            return new FiveCardTable(payload);
+        }
+    }
+
+    /**
+     * 优先映射文件中的表；文件缺失或过期时重新构建，并尽量写回文件供之后的进程使用
+     * @param file 表文件
+     */
+    public static FiveCardTable loadOrBuild(Path file) {
+        try {
+            FiveCardTable table = load(file);
+            if (table != null) {
+                return table;
+            }
+        } catch (IOException e) {
+            System.out.println("警告：读取牌型表文件失败，改为重新计算：" + e.getMessage());
+        }
+        FiveCardTable table = build();
+        try {
+            table.save(file);
+        } catch (IOException e) {
+            System.out.println("警告：写入牌型表文件失败：" + e.getMessage());
+        }
+        return table;
+    }
+
+    /**
+     * 用原有的链式判断（PokerPattern.match/getCritical）逐项校验整张表
+     * 每个组合按 intValue 升序组成列表后判断，并行执行
+     * @return 不一致的表项数，0 表示全部一致
+     */
+    public long verify() {
+        return ForkJoinPool.commonPool().invoke(new VerifyTask(this, 0, SIZE));
+    }
+
+    /**
+     * colex 顺序中的下一个同样张数的组合（Gosper's hack）
+     */
+    private static long nextCombination(long mask) {
+        long lowest = mask & -mask;
+        long ripple = mask + lowest;
+        return ripple | (((ripple ^ mask) >>> 2) / lowest);
+    }
+
+    @SuppressWarnings("serial") // 任务只在进程内使用，不会序列化
+    private static final class BuildTask extends RecursiveAction {
+        private final int[] entries;
+        private final int from;
+        private final int to;
+
+        BuildTask(int[] entries, int from, int to) {
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                // 组合数索引与 colex 顺序一致，从起点还原一次后逐个取后继即可
+                long mask = CombinatorialIndex.unrank(from, 5);
+                for (int i = from; i < to; i++) {
+                    entries[i] = HistogramClassifier.classify(mask);
+                    mask = nextCombination(mask);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BuildTask(entries, from, mid), new BuildTask(entries, mid, to));
+        }
+    }
+
+    @SuppressWarnings("serial") // 任务只在进程内使用，不会序列化
+    private static final class VerifyTask extends RecursiveTask<Long> {
+        private final FiveCardTable table;
+        private final int from;
+        private final int to;
+
+        VerifyTask(FiveCardTable table, int from, int to) {
+            this.table = table;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= LEAF_SIZE) {
+                long mismatches = 0;
+                PokerPatternMatcher matcher = new PokerPatternMatcher();
+                long mask = CombinatorialIndex.unrank(from, 5);
+                for (int i = from; i < to; i++) {
+                    List<Card> cards = new ArrayList<>(5);
+                    for (long bits = mask; bits != 0; bits &= bits - 1) {
+                        cards.add(Card.of(Long.numberOfTrailingZeros(bits)));
+                    }
+                    PokerPatternMatcher.PatternResult expected = matcher.matchPatternByChain(cards);
+                    int packed = expected.isValid()
+                            ? HistogramClassifier.pack(expected.getPatternWeight(), expected.getCriticalCardWeight())
+                            : HistogramClassifier.INVALID;
+                    if (table.get(i) != packed) {
+                        mismatches++;
+                    }
+                    mask = nextCombination(mask);
+                }
+                return mismatches;
+            }
+            int mid = (from + to) >>> 1;
+            VerifyTask left = new VerifyTask(table, from, mid);
+            left.fork();
+            long right = new VerifyTask(table, mid, to).compute();
+            return left.join() + right;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package PokerPatterns;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import cards.Card;
+import cards.CardSet;
+
+/**
+ * 5张牌查找表的构建、校验与查询性能测试
+ * 依次输出：并行构建耗时、与链式判断逐项校验的结果、查表与直方图判断的单次耗时
+ * 运行：java PokerPatterns.FiveCardTableBenchmark [样本数]
+ */
+public class FiveCardTableBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int samples = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+
+        long start = System.nanoTime();
+        FiveCardTable table = FiveCardTable.build();
+        System.out.printf("构建 %d 项用时 %.1f ms（并行度 %d）%n", table.size(),
+                (System.nanoTime() - start) / 1e6, java.util.concurrent.ForkJoinPool.getCommonPoolParallelism());
+
+        start = System.nanoTime();
+        long mismatches = table.verify();
+        System.out.printf("与链式判断逐项校验：%d 项不一致，用时 %.1f ms%n", mismatches, (System.nanoTime() - start) / 1e6);
+        if (mismatches != 0) {
+            throw new IllegalStateException("查找表与 PokerPattern 的判断结果不一致");
+        }
+
+        // 随机5张牌组合
+        SplittableRandom random = new SplittableRandom(11);
+        long[] masks = new long[samples];
+        List<List<Card>> lists = new ArrayList<>(samples);
+        for (int i = 0; i < samples; i++) {
+            long mask = 0;
+            while (Long.bitCount(mask) < 5) {
+                mask |= 1L << random.nextInt(52);
+            }
+            masks[i] = mask;
+            lists.add(CardSet.of(mask).toList());
+        }
+
+        PokerPatternMatcher histogram = new PokerPatternMatcher(PokerPatternMatcher.Mode.HISTOGRAM);
+        PokerPatternMatcher lookup = new PokerPatternMatcher(PokerPatternMatcher.Mode.LOOKUP_TABLE);
+        for (int round = 1; round <= ROUNDS; round++) {
+            long sink = 0;
+            start = System.nanoTime();
+            for (long mask : masks) {
+                sink += histogram.matchPattern(mask).getCriticalCardWeight();
+            }
+            long histogramMask = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (long mask : masks) {
+                sink -= lookup.matchPattern(mask).getCriticalCardWeight();
+            }
+            long lookupMask = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (List<Card> cards : lists) {
+                sink += histogram.matchPattern(cards).getPatternWeight();
+            }
+            long histogramList = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (List<Card> cards : lists) {
+                sink -= lookup.matchPattern(cards).getPatternWeight();
+            }
+            long lookupList = System.nanoTime() - start;
+
+            System.out.printf("第%d轮  位图 直方图: %.1f ns  查表: %.1f ns | 列表 直方图: %.1f ns  查表: %.1f ns  (%d)%n",
+                    round, (double) histogramMask / samples, (double) lookupMask / samples,
+                    (double) histogramList / samples, (double) lookupList / samples, sink);
+        }
+    }
+}
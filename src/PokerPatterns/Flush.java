@@ -2,7 +2,6 @@ package PokerPatterns;
 
 import java.util.*;
 import cards.Card;
-import cards.Suit;
 
 /**
  * 同花五牌型实现
@@ -27,9 +26,9 @@ public class Flush extends PokerPattern {
 
 
         // 判断花色是否全部相同
-        Suit firstSuit = cards.get(0).getSuit();
+        int firstSuit = cards.get(0).getSuitValue();
         for (Card c : cards) {
-            if (c.getSuit() != firstSuit) {
+            if (c.getSuitValue() != firstSuit) {
                 return false;
             }
         }
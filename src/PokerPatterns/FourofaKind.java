@@ -27,19 +27,19 @@ public class FourofaKind extends PokerPattern {
         if (cards.size() != 5) return false;
 
         // 按牌值排序
-        Collections.sort(cards, Comparator.comparingInt((Card card) -> card.getRank().getValue()));
+        Collections.sort(cards, Comparator.comparingInt((Card card) -> card.getRankValue()));
 
         // 判断前四张牌是否相同，且第五张牌不同
-        boolean isFourOfAKindFirstFour = cards.get(0).getRank().getValue() == cards.get(1).getRank().getValue() &&
-                cards.get(1).getRank().getValue() == cards.get(2).getRank().getValue() &&
-                cards.get(2).getRank().getValue() == cards.get(3).getRank().getValue() &&
-                cards.get(3).getRank().getValue() != cards.get(4).getRank().getValue();
+        boolean isFourOfAKindFirstFour = cards.get(0).getRankValue() == cards.get(1).getRankValue() &&
+                cards.get(1).getRankValue() == cards.get(2).getRankValue() &&
+                cards.get(2).getRankValue() == cards.get(3).getRankValue() &&
+                cards.get(3).getRankValue() != cards.get(4).getRankValue();
 
         // 判断后四张牌是否相同，且第一张牌不同
-        boolean isFourOfAKindLastFour = cards.get(1).getRank().getValue() == cards.get(2).getRank().getValue() &&
-                cards.get(2).getRank().getValue() == cards.get(3).getRank().getValue() &&
-                cards.get(3).getRank().getValue() == cards.get(4).getRank().getValue() &&
-                cards.get(0).getRank().getValue() != cards.get(1).getRank().getValue();
+        boolean isFourOfAKindLastFour = cards.get(1).getRankValue() == cards.get(2).getRankValue() &&
+                cards.get(2).getRankValue() == cards.get(3).getRankValue() &&
+                cards.get(3).getRankValue() == cards.get(4).getRankValue() &&
+                cards.get(0).getRankValue() != cards.get(1).getRankValue();
 
         return isFourOfAKindFirstFour || isFourOfAKindLastFour;
     }
@@ -57,9 +57,9 @@ public class FourofaKind extends PokerPattern {
     @Override
     public int getCritical(List<Card> cards) {
         // 按牌值排序
-        Collections.sort(cards, Comparator.comparingInt((Card card) -> card.getRank().getValue()));
+        Collections.sort(cards, Comparator.comparingInt((Card card) -> card.getRankValue()));
 
-        if (cards.get(0).getRank().getValue() == cards.get(1).getRank().getValue()) {
+        if (cards.get(0).getRankValue() == cards.get(1).getRankValue()) {
             return cards.get(3).getWeight(); // 前四张牌相同
         } else {
             return cards.get(4).getWeight(); // 后四张牌相同
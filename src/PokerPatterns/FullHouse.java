@@ -26,17 +26,17 @@ public class FullHouse extends PokerPattern {
         if (cards.size() != 5) return false;
 
         // 按牌值排序
-        Collections.sort(cards, Comparator.comparingInt((Card card) -> card.getRank().getValue()));
+        Collections.sort(cards, Comparator.comparingInt((Card card) -> card.getRankValue()));
 
         // 情况1：前三张牌相同，后两张牌相同
-        boolean isThreeThenTwo = cards.get(0).getRank().getValue() == cards.get(1).getRank().getValue() &&
-                cards.get(1).getRank().getValue() == cards.get(2).getRank().getValue() &&
-                cards.get(3).getRank().getValue() == cards.get(4).getRank().getValue();
+        boolean isThreeThenTwo = cards.get(0).getRankValue() == cards.get(1).getRankValue() &&
+                cards.get(1).getRankValue() == cards.get(2).getRankValue() &&
+                cards.get(3).getRankValue() == cards.get(4).getRankValue();
 
         // 情况2：前两张牌相同，后三张牌相同
-        boolean isTwoThenThree = cards.get(0).getRank().getValue() == cards.get(1).getRank().getValue() &&
-                cards.get(2).getRank().getValue() == cards.get(3).getRank().getValue() &&
-                cards.get(3).getRank().getValue() == cards.get(4).getRank().getValue();
+        boolean isTwoThenThree = cards.get(0).getRankValue() == cards.get(1).getRankValue() &&
+                cards.get(2).getRankValue() == cards.get(3).getRankValue() &&
+                cards.get(3).getRankValue() == cards.get(4).getRankValue();
 
         return isThreeThenTwo || isTwoThenThree;
     }
@@ -54,10 +54,10 @@ public class FullHouse extends PokerPattern {
     @Override
     public int getCritical(List<Card> cards) {
         // 按牌值排序
-        Collections.sort(cards, Comparator.comparingInt((Card card) -> card.getRank().getValue()));
+        Collections.sort(cards, Comparator.comparingInt((Card card) -> card.getRankValue()));
 
         // 判断是哪种情况
-        if (cards.get(0).getRank().getValue() == cards.get(2).getRank().getValue()) {
+        if (cards.get(0).getRankValue() == cards.get(2).getRankValue()) {
             return cards.get(2).getWeight(); // 前三张牌相同
         } else {
             return cards.get(4).getWeight(); // 后三张牌相同
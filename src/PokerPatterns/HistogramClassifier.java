@@ -0,0 +1,177 @@
+package PokerPatterns;
+
+import java.util.List;
+import cards.Card;
+
+/**
+ * 一次遍历的牌型判断器
+ * 遍历牌组时同时建立面值计数直方图与花色位图，由此直接得出牌型与关键牌，
+ * 不排序、不复制、也不修改传入的牌组
+ * 结果与 PokerPattern 链式判断（match/getCritical）完全一致
+ *
+ * 结果打包为一个 int：牌型权重 << 8 | 关键牌权重，0 表示无效牌型
+ */
+public final class HistogramClassifier {
+    public static final int INVALID = 0;
+
+    // 10JQKA 的面值位图（A=0, 10=9, J=10, Q=11, K=12）
+    private static final int BROADWAY = 0x1E01;
+
+    private HistogramClassifier() {}
+
+    /**
+     * 打包牌型权重与关键牌权重
+     */
+    public static int pack(int patternWeight, int criticalWeight) {
+        return patternWeight << 8 | criticalWeight;
+    }
+
+    /**
+     * 从打包结果中取出牌型权重（0 表示无效）
+     */
+    public static int patternWeightOf(int packed) {
+        return packed >>> 8;
+    }
+
+    /**
+     * 从打包结果中取出关键牌权重
+     */
+    public static int criticalWeightOf(int packed) {
+        return packed & 0xFF;
+    }
+
+    /**
+     * 判断一组牌的牌型
+     * 四带一、三带一对的关键牌与链式判断相同：取牌组中最后出现的那张主牌
+     * @param cards 待判断的牌组，不会被修改
+     * @return 打包的结果，无效牌型返回 INVALID
+     */
+    public static int classify(List<Card> cards) {
+        if (cards == null) {
+            return INVALID;
+        }
+        int n = cards.size();
+        if (n != 1 && n != 2 && n != 3 && n != 5) {
+            return INVALID;
+        }
+
+        long counts = 0L;        // 每个面值占3位的计数
+        int faceMask = 0;        // 出现过的面值
+        int suitMask = 0;        // 出现过的花色
+        int maxCount = 0;        // 同面值的最多张数
+        int maxWeight = 0;       // 最大的牌权重
+        int heavyWeight = 0;     // 张数达到3的面值最后出现的那张牌的权重
+        int topFace = -1;        // 最大面值及其牌权重
+        int topFaceWeight = 0;
+        int lowFace = 13;        // 最小面值及其牌权重
+        int lowFaceWeight = 0;
+
+        for (int i = 0; i < n; i++) {
+            int v = cards.get(i).getIntValue();
+            int face = Card.rankValueOf(v);
+            int weight = Card.weightOf(v);
+            int shift = face * 3;
+            counts += 1L << shift;
+            int count = (int) (counts >>> shift) & 7;
+            if (count > maxCount) maxCount = count;
+            if (count >= 3) heavyWeight = weight;
+            faceMask |= 1 << face;
+            suitMask |= 1 << Card.suitValueOf(v);
+            if (weight > maxWeight) maxWeight = weight;
+            if (face > topFace) {
+                topFace = face;
+                topFaceWeight = weight;
+            }
+            if (face < lowFace) {
+                lowFace = face;
+                lowFaceWeight = weight;
+            }
+        }
+        return decide(n, faceMask, suitMask, maxCount, maxWeight, heavyWeight, topFaceWeight, lowFaceWeight);
+    }
+
+    /**
+     * 判断一个52位位图表示的牌组的牌型
+     * 按 intValue 从小到大遍历，四带一、三带一对的关键牌取主牌中 intValue 最大的一张，
+     * 与把牌按 intValue 升序排成列表后调用链式判断的结果一致
+     * @param mask 52位位图
+     * @return 打包的结果，无效牌型返回 INVALID
+     */
+    public static int classify(long mask) {
+        int n = Long.bitCount(mask);
+        if (n != 1 && n != 2 && n != 3 && n != 5) {
+            return INVALID;
+        }
+
+        long counts = 0L;
+        int faceMask = 0;
+        int suitMask = 0;
+        int maxCount = 0;
+        int maxWeight = 0;
+        int heavyWeight = 0;
+        int topFace = -1;
+        int topFaceWeight = 0;
+        int lowFace = 13;
+        int lowFaceWeight = 0;
+
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            int v = Long.numberOfTrailingZeros(bits);
+            int face = Card.rankValueOf(v);
+            int weight = Card.weightOf(v);
+            int shift = face * 3;
+            counts += 1L << shift;
+            int count = (int) (counts >>> shift) & 7;
+            if (count > maxCount) maxCount = count;
+            if (count >= 3) heavyWeight = weight;
+            faceMask |= 1 << face;
+            suitMask |= 1 << Card.suitValueOf(v);
+            if (weight > maxWeight) maxWeight = weight;
+            if (face > topFace) {
+                topFace = face;
+                topFaceWeight = weight;
+            }
+            if (face < lowFace) {
+                lowFace = face;
+                lowFaceWeight = weight;
+            }
+        }
+        return decide(n, faceMask, suitMask, maxCount, maxWeight, heavyWeight, topFaceWeight, lowFaceWeight);
+    }
+
+    /**
+     * 由直方图统计量得出牌型与关键牌
+     */
+    private static int decide(int n, int faceMask, int suitMask, int maxCount, int maxWeight,
+                              int heavyWeight, int topFaceWeight, int lowFaceWeight) {
+        switch (n) {
+            case 1:
+                return pack(1, maxWeight);                                    // 单张
+            case 2:
+                return maxCount == 2 ? pack(2, maxWeight) : INVALID;           // 对子
+            case 3:
+                return maxCount == 3 ? pack(3, maxWeight) : INVALID;           // 三张
+            default:
+                break;
+        }
+
+        if (maxCount == 4) {
+            return pack(7, heavyWeight);                                      // 四带一
+        }
+        if (maxCount == 3) {
+            // 两种面值才是三带一对，三种面值是三张带两张单牌
+            return Integer.bitCount(faceMask) == 2 ? pack(6, heavyWeight) : INVALID;
+        }
+        if (maxCount != 1) {
+            return INVALID;
+        }
+
+        boolean flush = (suitMask & (suitMask - 1)) == 0;
+        boolean straight = faceMask == BROADWAY || faceMask == (0x1F << Integer.numberOfTrailingZeros(faceMask));
+        // 顺子的关键牌为最大面值的牌，10JQKA 例外取 A；同花五沿用顺子的取法即最大面值的牌
+        int straightCritical = faceMask == BROADWAY ? lowFaceWeight : topFaceWeight;
+        if (straight) {
+            return flush ? pack(8, straightCritical) : pack(4, straightCritical); // 同花顺 / 杂顺
+        }
+        return flush ? pack(5, topFaceWeight) : INVALID;                       // 同花五
+    }
+}
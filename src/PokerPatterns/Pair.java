@@ -26,7 +26,7 @@ public class Pair extends PokerPattern {
     @Override
     public boolean match(List<Card> cards){
         // 如果牌数为2且两张牌的点数相同，则为对子
-        if(cards.size() == 2 && cards.get(0).getRank().getValue() == cards.get(1).getRank().getValue()) return true;
+        if(cards.size() == 2 && cards.get(0).getRankValue() == cards.get(1).getRankValue()) return true;
         return false;
     }
 
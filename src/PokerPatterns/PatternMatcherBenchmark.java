@@ -0,0 +1,117 @@
+package PokerPatterns;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import cards.Card;
+import cards.CardSet;
+import cards.Deck;
+
+/**
+ * 牌型判断的性能对比：原有的链式判断 vs 一次遍历的直方图判断 vs 按位切片的批量判断
+ * 样本为随机的1/2/3/5张牌组以及随机手牌中能组成的对子、三张与5张牌型，
+ * 先校验判断结果完全一致，再分别计时
+ * 运行：java PokerPatterns.PatternMatcherBenchmark [样本数]
+ */
+public class PatternMatcherBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int samples = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        List<List<Card>> plays = randomPlays(samples, new SplittableRandom(7));
+        PokerPatternMatcher matcher = new PokerPatternMatcher();
+
+        // 链式判断会就地排序，给它单独一份拷贝
+        List<List<Card>> chainPlays = new ArrayList<>(plays.size());
+        for (List<Card> play : plays) {
+            chainPlays.add(new ArrayList<>(play));
+        }
+
+        for (int i = 0; i < plays.size(); i++) {
+            PokerPatternMatcher.PatternResult expected = matcher.matchPatternByChain(new ArrayList<>(plays.get(i)));
+            PokerPatternMatcher.PatternResult actual = matcher.matchPattern(plays.get(i));
+            if (expected.getPatternWeight() != actual.getPatternWeight()
+                    || expected.getCriticalCardWeight() != actual.getCriticalCardWeight()
+                    || expected.isValid() != actual.isValid()) {
+                throw new IllegalStateException("结果不一致: " + plays.get(i));
+            }
+        }
+
+        // 批量判断以位图为输入，结果与逐个按位图判断一致
+        long[] masks = new long[plays.size()];
+        for (int i = 0; i < masks.length; i++) {
+            masks[i] = CardSet.maskOf(plays.get(i));
+        }
+        int[] batch = new int[masks.length];
+        matcher.classifyAll(masks, batch);
+        for (int i = 0; i < masks.length; i++) {
+            if (batch[i] != HistogramClassifier.classify(masks[i])) {
+                throw new IllegalStateException("批量结果不一致: " + plays.get(i));
+            }
+        }
+        System.out.println("校验通过，样本数：" + plays.size());
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            long sink = 0;
+            for (List<Card> play : chainPlays) {
+                PokerPatternMatcher.PatternResult result = matcher.matchPatternByChain(play);
+                sink += result.getPatternWeight() + result.getCriticalCardWeight();
+            }
+            long chainTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (List<Card> play : plays) {
+                PokerPatternMatcher.PatternResult result = matcher.matchPattern(play);
+                sink -= result.getPatternWeight() + result.getCriticalCardWeight();
+            }
+            long histogramTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            matcher.classifyAll(masks, batch);
+            for (int packed : batch) {
+                sink += packed;
+            }
+            long batchTime = System.nanoTime() - start;
+
+            System.out.printf("第%d轮  链式: %.1f ns/次  直方图: %.1f ns/次  批量: %.1f ns/次  (%d)%n", round,
+                    (double) chainTime / plays.size(), (double) histogramTime / plays.size(),
+                    (double) batchTime / plays.size(), sink);
+        }
+    }
+
+    /**
+     * 生成测试样本：一半是随机张数的任意牌组，一半是从随机手牌中挑出的有效牌型
+     */
+    static List<List<Card>> randomPlays(int count, SplittableRandom random) {
+        int[] sizes = {1, 2, 3, 5};
+        List<List<Card>> plays = new ArrayList<>(count);
+        Deck deck = new Deck(random);
+        while (plays.size() < count) {
+            deck.reset();
+            List<Card> hand = deck.dealCards(13).toList();
+            if (plays.size() % 2 == 0) {
+                plays.add(hand.subList(0, sizes[random.nextInt(sizes.length)]));
+                continue;
+            }
+            // 在手牌中随机挑5张，直到组成有效的5张牌型（最多尝试若干次）
+            PokerPatternMatcher matcher = new PokerPatternMatcher();
+            for (int attempt = 0; attempt < 64; attempt++) {
+                List<Card> play = new ArrayList<>(5);
+                long used = 0;
+                while (play.size() < 5) {
+                    int index = random.nextInt(hand.size());
+                    if ((used & (1L << index)) == 0) {
+                        used |= 1L << index;
+                        play.add(hand.get(index));
+                    }
+                }
+                if (matcher.matchPattern(play).isValid()) {
+                    plays.add(play);
+                    break;
+                }
+            }
+        }
+        return plays;
+    }
+}
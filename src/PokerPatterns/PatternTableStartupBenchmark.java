@@ -0,0 +1,91 @@
+package PokerPatterns;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 5张牌查找表的启动耗时测试：比较进程内重新构建与映射持久化文件两种方式
+ * 从调用开始到得到第一个判断结果的时间
+ * 每次测量都在新启动的 JVM 中进行，避免前一次的类加载、JIT 与页缓存之外的状态影响结果
+ * 运行：java PokerPatterns.PatternTableStartupBenchmark [表文件] [每种方式的次数]
+ */
+public class PatternTableStartupBenchmark {
+    private static final long SAMPLE_MASK = 0x1FL; // ♠A 2 3 4 5
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && (args[0].equals("--build") || args[0].equals("--load"))) {
+            runChild(args);
+            return;
+        }
+
+        Path file = Paths.get(args.length > 0 ? args[0] : "pattern-table.bin");
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        // 准备表文件，之后的子进程只读映射
+        long start = System.nanoTime();
+        FiveCardTable.loadOrBuild(file);
+        System.out.printf("准备表文件 %s 用时 %.1f ms，大小 %d 字节%n", file,
+                (System.nanoTime() - start) / 1e6, Files.size(file));
+
+        for (String mode : new String[] {"--build", "--load"}) {
+            double total = 0;
+            for (int run = 1; run <= runs; run++) {
+                double ms = spawn(mode, file);
+                total += ms;
+                System.out.printf("%s 第%d次：%.1f ms%n", mode.equals("--build") ? "重新构建" : "映射文件", run, ms);
+            }
+            System.out.printf("%s 平均：%.1f ms%n%n", mode.equals("--build") ? "重新构建" : "映射文件", total / runs);
+        }
+    }
+
+    /**
+     * 子进程：测量得到第一个判断结果的耗时，以毫秒输出一行
+     */
+    private static void runChild(String[] args) throws IOException {
+        long start = System.nanoTime();
+        FiveCardTable table = args[0].equals("--build") ? FiveCardTable.build() : FiveCardTable.load(Paths.get(args[1]));
+        if (table == null) {
+            throw new IllegalStateException("表文件不可用：" + args[1]);
+        }
+        int packed = table.lookup(SAMPLE_MASK);
+        long elapsed = System.nanoTime() - start;
+        if (HistogramClassifier.patternWeightOf(packed) != 8) {
+            throw new IllegalStateException("查表结果错误：" + packed);
+        }
+        System.out.println(elapsed / 1e6);
+    }
+
+    /**
+     * 用与当前进程相同的 java 命令、JVM 参数与类路径启动子进程
+     */
+    private static double spawn(String mode, Path file) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(PatternTableStartupBenchmark.class.getName());
+        command.add(mode);
+        command.add(file.toString());
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String last = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                last = line;
+            }
+        }
+        if (process.waitFor() != 0 || last == null) {
+            throw new IllegalStateException("子进程失败：" + last);
+        }
+        return Double.parseDouble(last.trim());
+    }
+}
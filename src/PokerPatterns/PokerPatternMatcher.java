@@ -11,6 +11,13 @@ import cards.*;
 public class PokerPatternMatcher {
     private static final List<PokerPattern> PATTERNS = new ArrayList<>();
     
+    // 按牌型权重索引的牌型单例，下标0为空表示无效牌型
+    private static final PokerPattern[] PATTERNS_BY_WEIGHT = new PokerPattern[9];
+    
+    // 预先创建的全部结果对象，按打包结果（牌型权重 << 8 | 关键牌权重）索引，判断时不再分配
+    private static final PatternResult[] RESULTS = new PatternResult[9 << 8];
+    private static final PatternResult INVALID_RESULT = new PatternResult(null, 0, false);
+    
     static {
         // 按照权重从高到低添加所有牌型
         PATTERNS.add(StraightFlush.getInstance());    // 同花顺 (8)
@@ -21,6 +28,50 @@ public class PokerPatternMatcher {
         PATTERNS.add(Three.getInstance());            // 三张 (3)
         PATTERNS.add(Pair.getInstance());             // 对子 (2)
         PATTERNS.add(One.getInstance());              // 单张 (1)
+        
+        for (PokerPattern pattern : PATTERNS) {
+            PATTERNS_BY_WEIGHT[pattern.getPatternWeight()] = pattern;
+        }
+        RESULTS[HistogramClassifier.INVALID] = INVALID_RESULT;
+        for (int weight = 1; weight <= 8; weight++) {
+            for (int critical = 0; critical < 256; critical++) {
+                RESULTS[HistogramClassifier.pack(weight, critical)] =
+                        new PatternResult(PATTERNS_BY_WEIGHT[weight], critical, true);
+            }
+        }
+    }
+    
+    /**
+     * 牌型判断方式
+     */
+    public enum Mode {
+        HISTOGRAM,     // 一次遍历的直方图判断
+        LOOKUP_TABLE   // 5张牌查预先算好的全组合表（FiveCardTable），其余张数仍用直方图判断
+    }
+    
+    // 默认判断方式，可用系统属性 cddd.patternMatcher.mode=LOOKUP_TABLE 切换
+    private static final Mode DEFAULT_MODE =
+            Mode.valueOf(System.getProperty("cddd.patternMatcher.mode", Mode.HISTOGRAM.name()));
+    
+    private volatile Mode mode;
+    
+    public PokerPatternMatcher() {
+        this(DEFAULT_MODE);
+    }
+    
+    public PokerPatternMatcher(Mode mode) {
+        this.mode = mode;
+    }
+    
+    public Mode getMode() {
+        return mode;
+    }
+    
+    /**
+     * 切换判断方式，切换到 LOOKUP_TABLE 时若查找表尚未构建，会在下一次判断5张牌时构建
+     */
+    public void setMode(Mode mode) {
+        this.mode = mode;
     }
     
     /**
@@ -60,10 +111,98 @@ public class PokerPatternMatcher {
     
     /**
      * 判断一组牌属于哪种牌型
+     * 使用一次遍历的直方图判断，不排序也不修改传入的牌组，结果与逐个牌型匹配完全一致
+     * 查表模式下5张牌的四带一、三带一对取主牌中 intValue 最大的一张为关键牌，
+     * 与输入顺序无关；由于主牌点数各不相同，比较结果不受影响
      * @param cards 待判断的牌组
      * @return PatternResult 包含牌型信息的对象
      */
     public PatternResult matchPattern(List<Card> cards) {
+        return toResult(classify(cards));
+    }
+    
+    /**
+     * 判断一组牌属于哪种牌型（牌集合版本）
+     */
+    public PatternResult matchPattern(CardSet cards) {
+        return matchPattern(cards.getMask());
+    }
+    
+    /**
+     * 判断52位位图表示的牌组属于哪种牌型
+     */
+    public PatternResult matchPattern(long mask) {
+        return toResult(classify(mask));
+    }
+    
+    /**
+     * 按当前判断方式得出打包的结果，不创建任何对象
+     * @param cards 待判断的牌组
+     * @return 牌型权重 << 8 | 关键牌权重，0 表示无效
+     */
+    public int classify(List<Card> cards) {
+        if (mode == Mode.LOOKUP_TABLE && cards != null && cards.size() == 5) {
+            long mask = CardSet.maskOf(cards);
+            if (Long.bitCount(mask) == 5) {
+                return FiveCardTable.getInstance().lookup(mask);
+            }
+        }
+        return HistogramClassifier.classify(cards);
+    }
+    
+    /**
+     * 按当前判断方式得出52位位图的打包结果
+     */
+    public int classify(long mask) {
+        if (mode == Mode.LOOKUP_TABLE && Long.bitCount(mask) == 5) {
+            return FiveCardTable.getInstance().lookup(mask);
+        }
+        return HistogramClassifier.classify(mask);
+    }
+    
+    /**
+     * 批量判断一组以位图表示的牌组
+     * 使用按位切片的 BatchClassifier；查表模式下5张牌查 FiveCardTable
+     * @param masks 牌组位图
+     * @param out 结果数组，长度不小于 masks.length，out[i] 为打包结果，0 表示无效
+     */
+    public void classifyAll(long[] masks, int[] out) {
+        classifyAll(masks, masks.length, out);
+    }
+    
+    /**
+     * 批量判断 masks 的前 count 项，便于复用同一个缓冲区
+     */
+    public void classifyAll(long[] masks, int count, int[] out) {
+        if (mode != Mode.LOOKUP_TABLE) {
+            BatchClassifier.classifyAll(masks, count, out);
+            return;
+        }
+        if (count > masks.length || count > out.length) {
+            throw new IllegalArgumentException("Batch size " + count + " exceeds array length");
+        }
+        FiveCardTable table = FiveCardTable.getInstance();
+        for (int i = 0; i < count; i++) {
+            long mask = masks[i];
+            out[i] = Long.bitCount(mask) == 5 ? table.lookup(mask) : BatchClassifier.classify(mask);
+        }
+    }
+    
+    /**
+     * 把打包的判断结果转换为 PatternResult，返回的是预先创建好的共享对象
+     * @param packed 牌型权重 << 8 | 关键牌权重，0 表示无效
+     */
+    public static PatternResult toResult(int packed) {
+        return RESULTS[packed];
+    }
+    
+    /**
+     * 按权重从高到低依次尝试每个牌型（原有的链式判断）
+     * 注意部分牌型会对传入的列表就地排序；保留用于校验与性能对比
+     * @param cards 待判断的牌组
+     * @return PatternResult 包含牌型信息的对象
+     */
+    public PatternResult matchPatternByChain(List<Card> cards) {
         if (cards == null || cards.isEmpty()) {
             return new PatternResult(null, 0, false);
         }
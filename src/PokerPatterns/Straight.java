@@ -35,7 +35,7 @@ public class Straight extends PokerPattern {
         
         for (Card card : cards) {
             if (card == null) return false;
-            switch (card.getRank().getValue()) {
+            switch (card.getRankValue()) {
                 case 0: hasAce = true; break;
                 case 9: hasTen = true; break;
                 case 10: hasJack = true; break;
@@ -51,7 +51,7 @@ public class Straight extends PokerPattern {
         
         // 其他情况，检查是否构成连续序列
         List<Card> sortedCards = new ArrayList<>(cards);
-        Collections.sort(sortedCards, Comparator.comparingInt((Card card) -> card.getRank().getValue()));
+        Collections.sort(sortedCards, Comparator.comparingInt((Card card) -> card.getRankValue()));
         return checkConsecutive(sortedCards);
     }
     
@@ -59,7 +59,7 @@ public class Straight extends PokerPattern {
         // 检查是否连续
         for (int i = 0; i < 4; i++) {
             // 检查相邻两张牌的值是否相差1
-            if (sortedCards.get(i + 1).getRank().getValue() - sortedCards.get(i).getRank().getValue() != 1) {
+            if (sortedCards.get(i + 1).getRankValue() - sortedCards.get(i).getRankValue() != 1) {
                 return false;
             }
         }
@@ -80,35 +80,35 @@ public class Straight extends PokerPattern {
     public int getCritical(List<Card> cards) {
         // 先对牌进行排序
         List<Card> sortedCards = new ArrayList<>(cards);
-        Collections.sort(sortedCards, Comparator.comparingInt((Card card) -> card.getRank().getValue()));
+        Collections.sort(sortedCards, Comparator.comparingInt((Card card) -> card.getRankValue()));
         
         // 根据第一张牌的值判断特殊情况
-        int firstRank = sortedCards.get(0).getRank().getValue();
+        int firstRank = sortedCards.get(0).getRankValue();
         
         // 如果是A开头，判断是A2345还是10JQKA
         if (firstRank == 0) {
             // 检查是否是A2345
-            if (sortedCards.get(1).getRank().getValue() == 1 && 
-                sortedCards.get(2).getRank().getValue() == 2 && 
-                sortedCards.get(3).getRank().getValue() == 3 && 
-                sortedCards.get(4).getRank().getValue() == 4) {
+            if (sortedCards.get(1).getRankValue() == 1 && 
+                sortedCards.get(2).getRankValue() == 2 && 
+                sortedCards.get(3).getRankValue() == 3 && 
+                sortedCards.get(4).getRankValue() == 4) {
                 return sortedCards.get(4).getWeight(); // 返回5的getWeight
             }
             // 检查是否是10JQKA
-            if (sortedCards.get(1).getRank().getValue() == 9 && 
-                sortedCards.get(2).getRank().getValue() == 10 && 
-                sortedCards.get(3).getRank().getValue() == 11 && 
-                sortedCards.get(4).getRank().getValue() == 12) {
+            if (sortedCards.get(1).getRankValue() == 9 && 
+                sortedCards.get(2).getRankValue() == 10 && 
+                sortedCards.get(3).getRankValue() == 11 && 
+                sortedCards.get(4).getRankValue() == 12) {
                 return sortedCards.get(0).getWeight(); // 返回A的getWeight
             }
         }
         
         // 如果是2开头，判断是否是23456
         if (firstRank == 1) {
-            if (sortedCards.get(1).getRank().getValue() == 2 && 
-                sortedCards.get(2).getRank().getValue() == 3 && 
-                sortedCards.get(3).getRank().getValue() == 4 && 
-                sortedCards.get(4).getRank().getValue() == 5) {
+            if (sortedCards.get(1).getRankValue() == 2 && 
+                sortedCards.get(2).getRankValue() == 3 && 
+                sortedCards.get(3).getRankValue() == 4 && 
+                sortedCards.get(4).getRankValue() == 5) {
                 return sortedCards.get(4).getWeight(); // 返回6的getWeight
             }
         }
@@ -22,7 +22,7 @@ public class StraightFlush extends PokerPattern {
         if (cards.size() != 5) return false;
         //判断是否同花色
         for (int i = 0; i < 4; i++) {
-            if (cards.get(i).getSuit().getValue() != cards.get(i + 1).getSuit().getValue()) {
+            if (cards.get(i).getSuitValue() != cards.get(i + 1).getSuitValue()) {
                 return false;
             }
         }
@@ -21,8 +21,8 @@ public class Three extends PokerPattern {
 
     @Override
     public boolean match(List<Card> cards){
-        if(cards.size() == 3 && cards.get(0).getRank().getValue() == cards.get(1).getRank().getValue()
-               &&cards.get(1).getRank().getValue() == cards.get(2).getRank().getValue()) return true;
+        if(cards.size() == 3 && cards.get(0).getRankValue() == cards.get(1).getRankValue()
+               &&cards.get(1).getRankValue() == cards.get(2).getRankValue()) return true;
         return false;
     }
 
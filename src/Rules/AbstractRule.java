@@ -1,7 +1,9 @@
 package Rules;
 
 import java.util.List;
+import java.util.function.LongToIntFunction;
 import cards.*;
+import PokerPatterns.HistogramClassifier;
 import PokerPatterns.PokerPatternMatcher;
 
 /**
@@ -9,27 +11,135 @@ import PokerPatterns.PokerPatternMatcher;
  * 实现一些共同的功能
  */
 public abstract class AbstractRule implements Rule {
+    // 各规则共享的判断结果缓存，4096 组 × 4 路；可用系统属性 cddd.patternCache=false 关闭
+    private static final PatternCache PATTERN_CACHE = new PatternCache(4096);
+    private static volatile boolean patternCacheEnabled =
+            Boolean.parseBoolean(System.getProperty("cddd.patternCache", "true"));
+    
     protected final PokerPatternMatcher patternMatcher;
+    private final LongToIntFunction maskClassifier; // 缓存未命中时调用，预先创建避免每次分配
     
     protected AbstractRule() {
         this.patternMatcher = new PokerPatternMatcher();
+        this.maskClassifier = patternMatcher::classify;
+    }
+    
+    /**
+     * 各规则共享的判断结果缓存，可查看命中与未命中次数
+     */
+    public static PatternCache getPatternCache() {
+        return PATTERN_CACHE;
+    }
+    
+    public static boolean isPatternCacheEnabled() {
+        return patternCacheEnabled;
+    }
+    
+    /**
+     * 开启或关闭判断结果缓存，关闭时每次都重新判断
+     */
+    public static void setPatternCacheEnabled(boolean enabled) {
+        patternCacheEnabled = enabled;
+    }
+    
+    /**
+     * 判断一组牌，得到打包的结果
+     * 开启缓存时按牌的位图查缓存，未命中时由位图判断，因此四带一、三带一对的关键牌
+     * 与输入顺序无关，取主牌中 intValue 最大的一张；主牌点数各不相同，比较结果不受影响
+     */
+    protected int classify(List<Card> cards) {
+        if (patternCacheEnabled && cards != null) {
+            long mask = CardSet.maskOf(cards);
+            if (Long.bitCount(mask) == cards.size()) {
+                return classify(mask);
+            }
+        }
+        return patternMatcher.classify(cards);
+    }
+    
+    /**
+     * 判断52位位图表示的牌组，得到打包的结果
+     */
+    protected int classify(long mask) {
+        if (!patternCacheEnabled || !isValidCardCount(Long.bitCount(mask))) {
+            return patternMatcher.classify(mask);
+        }
+        return PATTERN_CACHE.get(mask, maskClassifier);
     }
     
     @Override
     public boolean isValidPattern(List<Card> cards) {
-        return patternMatcher.matchPattern(cards).isValid();
+        return classify(cards) != HistogramClassifier.INVALID;
     }
     
     @Override
     public String getPatternName(List<Card> cards) {
-        return patternMatcher.matchPattern(cards).getPatternName();
+        return PokerPatternMatcher.toResult(classify(cards)).getPatternName();
+    }
+    
+    @Override
+    public boolean isValidPattern(CardSet cards) {
+        return classify(cards.getMask()) != HistogramClassifier.INVALID;
+    }
+    
+    @Override
+    public String getPatternName(CardSet cards) {
+        return PokerPatternMatcher.toResult(classify(cards.getMask())).getPatternName();
+    }
+    
+    @Override
+    public long playKey(List<Card> cards) {
+        return toKey(cards == null ? 0 : cards.size(), classify(cards));
+    }
+    
+    @Override
+    public long playKey(long mask) {
+        return toKey(Long.bitCount(mask), classify(mask));
+    }
+    
+    @Override
+    public long playKey(long mask, int packed) {
+        return toKey(Long.bitCount(mask), packed);
+    }
+    
+    private long toKey(int count, int packed) {
+        if (packed == HistogramClassifier.INVALID) {
+            return PlayKey.INVALID;
+        }
+        int patternWeight = HistogramClassifier.patternWeightOf(packed);
+        return PlayKey.of(compareClass(count, patternWeight), patternWeight, HistogramClassifier.criticalWeightOf(packed));
+    }
+    
+    /**
+     * 出牌键中的可比较类别：类别相同的两手牌才能比较大小
+     * @param count 牌数
+     * @param patternWeight 牌型权重
+     * @return 0-255 的类别值
+     */
+    protected abstract int compareClass(int count, int patternWeight);
+    
+    @Override
+    public boolean canCompare(List<Card> cards1, List<Card> cards2) {
+        return canCompareKeys(playKey(cards1), playKey(cards2));
+    }
+    
+    @Override
+    public int compareCards(List<Card> cards1, List<Card> cards2) {
+        return compareKeys(playKey(cards1), playKey(cards2));
     }
     
     /**
      * 获取牌组的模式匹配结果
      */
     protected PokerPatternMatcher.PatternResult getPatternResult(List<Card> cards) {
-        return patternMatcher.matchPattern(cards);
+        return PokerPatternMatcher.toResult(classify(cards));
+    }
+    
+    /**
+     * 切换本规则使用的牌型判断方式，例如在大量模拟时改用5张牌查找表
+     */
+    public void setPatternMatcherMode(PokerPatternMatcher.Mode mode) {
+        patternMatcher.setMode(mode);
     }
     
     /**
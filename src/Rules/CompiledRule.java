@@ -0,0 +1,135 @@
+package Rules;
+
+import java.util.List;
+import cards.Card;
+import cards.CardSet;
+import cards.Rank;
+import cards.Suit;
+import PokerPatterns.HistogramClassifier;
+import PokerPatterns.PokerPatternMatcher;
+
+/**
+ * 由 RuleSpec 编译得到的规则
+ * 构造时把描述展开为几张查找表，判断出牌时只需一次牌型判断加几次查表，比较时只比较两个 long：
+ *   cardOrder[牌]            按规则的点数、花色顺序得到的牌大小（0-51）
+ *   keyBase[张数][牌型权重]   出牌键中与关键牌无关的部分（有效标志、可比较类别、牌型次序），
+ *                            张数或牌型不允许时为 INVALID
+ * 单张、对子、三张的关键牌取按规则顺序最大的一张；5张牌型的关键牌与牌型类的取法相同
+ * （顺子、同花按面值，四带一、三带一对取主牌），再按规则顺序换算大小
+ */
+public class CompiledRule extends AbstractRule {
+    // 标准关键牌权重（点数权重 * 10 + 花色权重）到牌的 intValue
+    private static final int[] STANDARD_WEIGHT_TO_CARD = new int[160];
+
+    static {
+        for (int v = 0; v < 52; v++) {
+            STANDARD_WEIGHT_TO_CARD[Card.weightOf(v)] = v;
+        }
+    }
+
+    private static final String INVALID_NAME = PokerPatternMatcher.toResult(HistogramClassifier.INVALID).getPatternName();
+
+    private final RuleSpec spec;
+    private final int[] cardOrder = new int[52];
+    private final long[][] keyBase = new long[6][9];
+
+    CompiledRule(RuleSpec spec) {
+        this.spec = spec;
+        for (int v = 0; v < 52; v++) {
+            cardOrder[v] = spec.rankPosition(Rank.fromValue(Card.rankValueOf(v))) * 4
+                    + spec.suitPosition(Suit.fromValue(Card.suitValueOf(v)));
+        }
+        for (int count = 1; count <= 5; count++) {
+            for (int patternWeight = 1; patternWeight <= 8; patternWeight++) {
+                int precedence = spec.patternPrecedence(patternWeight);
+                keyBase[count][patternWeight] = spec.isLegalCount(count) && precedence > 0
+                        ? PlayKey.of(compareClass(count, patternWeight), precedence, 0)
+                        : PlayKey.INVALID;
+            }
+        }
+    }
+
+    public RuleSpec getSpec() {
+        return spec;
+    }
+
+    @Override
+    public String getRuleName() {
+        return spec.getName();
+    }
+
+    /**
+     * 可比较类别：可跨张数比较时全部同类；否则按张数分类，不可跨牌型比较时再按牌型分类
+     */
+    @Override
+    protected int compareClass(int count, int patternWeight) {
+        if (spec.isCrossSizeComparable()) {
+            return 0;
+        }
+        return count << 4 | (spec.isCrossPatternComparable() ? 0 : patternWeight);
+    }
+
+    @Override
+    public long playKey(List<Card> cards) {
+        if (cards == null) {
+            return PlayKey.INVALID;
+        }
+        long mask = CardSet.maskOf(cards);
+        // 同一张牌重复出现不是有效出牌
+        return Long.bitCount(mask) == cards.size() ? playKey(mask) : PlayKey.INVALID;
+    }
+
+    @Override
+    public long playKey(long mask) {
+        return Long.bitCount(mask) > 5 ? PlayKey.INVALID : playKey(mask, classify(mask));
+    }
+
+    @Override
+    public long playKey(long mask, int packed) {
+        int count = Long.bitCount(mask);
+        if (count > 5 || packed == HistogramClassifier.INVALID) {
+            return PlayKey.INVALID;
+        }
+        long base = keyBase[count][HistogramClassifier.patternWeightOf(packed)];
+        if (base == PlayKey.INVALID) {
+            return PlayKey.INVALID;
+        }
+        int critical = count <= 3
+                ? highestOrder(mask)
+                : cardOrder[STANDARD_WEIGHT_TO_CARD[HistogramClassifier.criticalWeightOf(packed)]];
+        return base | critical;
+    }
+
+    private int highestOrder(long mask) {
+        int highest = 0;
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            highest = Math.max(highest, cardOrder[Long.numberOfTrailingZeros(bits)]);
+        }
+        return highest;
+    }
+
+    @Override
+    public boolean isValidPattern(List<Card> cards) {
+        return PlayKey.isValid(playKey(cards));
+    }
+
+    @Override
+    public boolean isValidPattern(CardSet cards) {
+        return PlayKey.isValid(playKey(cards.getMask()));
+    }
+
+    @Override
+    public String getPatternName(List<Card> cards) {
+        return isValidPattern(cards) ? super.getPatternName(cards) : INVALID_NAME;
+    }
+
+    @Override
+    public String getPatternName(CardSet cards) {
+        return isValidPattern(cards) ? super.getPatternName(cards) : INVALID_NAME;
+    }
+
+    @Override
+    public String toString() {
+        return spec.toString();
+    }
+}
@@ -0,0 +1,320 @@
+package Rules;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import PokerPatterns.BatchClassifier;
+
+/**
+ * 合法出牌生成器
+ * 给定手牌、上一手牌与规则，按牌型结构直接枚举全部合法出牌（单张、对子、三张以及全部5张牌型），
+ * 以52位位图的形式写入可复用的缓冲区，并可像迭代器一样逐个取出
+ * 生成过程中不创建对象：牌型判断用 BatchClassifier，出牌键用 Rule.playKey(mask, packed)
+ * 缓冲区只在容量不足时扩大一次
+ *
+ * 结果不包含“过”，是否允许过牌由调用方根据是否轮到自己领出决定
+ * 一个生成器同一时间只保存一组结果，递归搜索时每一层应使用各自的生成器
+ */
+public class MoveGenerator implements PrimitiveIterator.OfLong {
+    public static final int DIAMOND_THREE = 41;  // 首轮出牌必须包含方块三
+    private static final long DIAMOND_THREE_BIT = 1L << DIAMOND_THREE;
+    private static final int FACE_ROW = 0x1FFF;
+    private static final int BROADWAY = 0x1E01;  // 10JQKA 的面值位图
+
+    // SPREAD[花色子集] = 面值为 A 的这些花色的牌的位图，左移面值即得任意面值
+    private static final long[] SPREAD = new long[16];
+
+    static {
+        for (int suits = 0; suits < 16; suits++) {
+            for (int s = 0; s < 4; s++) {
+                if ((suits & (1 << s)) != 0) {
+                    SPREAD[suits] |= 1L << (s * 13);
+                }
+            }
+        }
+    }
+
+    private final Rule rule;
+    private final int[] faceSuits = new int[13];  // 每个面值持有的花色位图（位 s 为 intValue / 13 == s）
+    private long[] moves = new long[256];
+    private long[] keys = new long[256];
+    private int size;
+    private int cursor;
+
+    // 本次生成的条件
+    private boolean opening;
+    private long lastKey;
+    private boolean stopAtFirst;
+
+    public MoveGenerator(Rule rule) {
+        this.rule = rule;
+    }
+
+    public Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * 生成全部合法出牌
+     * @param hand 手牌位图
+     * @param lastPlay 需要压过的上一手牌，0 表示由自己领出（任意有效牌型都可以出）
+     * @param opening 是否为全局第一手牌（必须包含方块三）
+     * @return 合法出牌数，之后可用 moveAt/keyAt 或迭代器方法读取
+     */
+    public int generate(long hand, long lastPlay, boolean opening) {
+        run(hand, lastPlay, opening, false);
+        return size;
+    }
+
+    /**
+     * 是否存在能压过上一手牌的出牌，找到第一个即返回
+     * @param hand 手牌位图
+     * @param lastPlay 上一手牌，不能为0
+     */
+    public boolean canBeat(long hand, long lastPlay) {
+        if (lastPlay == 0) {
+            throw new IllegalArgumentException("No play to beat");
+        }
+        run(hand, lastPlay, false, true);
+        return size > 0;
+    }
+
+    private void run(long hand, long lastPlay, boolean opening, boolean stopAtFirst) {
+        this.size = 0;
+        this.cursor = 0;
+        this.opening = opening;
+        this.stopAtFirst = stopAtFirst;
+        this.lastKey = lastPlay == 0 ? PlayKey.INVALID : rule.playKey(lastPlay);
+        if (lastPlay != 0 && !PlayKey.isValid(lastKey)) {
+            return; // 上一手牌本身无效，任何牌都无法与之比较
+        }
+        if (opening && (hand & DIAMOND_THREE_BIT) == 0) {
+            return;
+        }
+
+        int faces = 0;
+        for (int face = 0; face < 13; face++) {
+            int suits = (int) (hand >>> face & 1)
+                    | (int) (hand >>> (13 + face) & 1) << 1
+                    | (int) (hand >>> (26 + face) & 1) << 2
+                    | (int) (hand >>> (39 + face) & 1) << 3;
+            faceSuits[face] = suits;
+            if (suits != 0) {
+                faces |= 1 << face;
+            }
+        }
+
+        if (generateSets(faces, 1) || generateSets(faces, 2) || generateSets(faces, 3)) {
+            return;
+        }
+        if (generateStraights(faces) || generateFlushes(hand) || generateFullHouses(faces)) {
+            return;
+        }
+        generateQuads(hand, faces);
+    }
+
+    /**
+     * 单张、对子、三张：每个面值的每个 size 张花色子集
+     */
+    private boolean generateSets(int faces, int size) {
+        for (int rest = faces; rest != 0; rest &= rest - 1) {
+            int face = Integer.numberOfTrailingZeros(rest);
+            int suits = faceSuits[face];
+            if (Integer.bitCount(suits) < size) {
+                continue;
+            }
+            for (int sub = suits; sub != 0; sub = (sub - 1) & suits) {
+                if (Integer.bitCount(sub) == size && emit(SPREAD[sub] << face)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 顺子（含同花顺）：每个五连面值窗口内各取一张的全部组合
+     */
+    private boolean generateStraights(int faces) {
+        for (int start = 0; start <= 9; start++) {
+            int window = start == 9 ? BROADWAY : 0x1F << start;
+            if ((faces & window) != window) {
+                continue;
+            }
+            int f0 = Integer.numberOfTrailingZeros(window);
+            int f1 = Integer.numberOfTrailingZeros(window & ~(1 << f0));
+            int f2 = Integer.numberOfTrailingZeros(window >>> (f1 + 1) << (f1 + 1));
+            int f3 = Integer.numberOfTrailingZeros(window >>> (f2 + 1) << (f2 + 1));
+            int f4 = 31 - Integer.numberOfLeadingZeros(window);
+            for (int a = faceSuits[f0]; a != 0; a &= a - 1) {
+                long m0 = SPREAD[a & -a] << f0;
+                for (int b = faceSuits[f1]; b != 0; b &= b - 1) {
+                    long m1 = m0 | SPREAD[b & -b] << f1;
+                    for (int c = faceSuits[f2]; c != 0; c &= c - 1) {
+                        long m2 = m1 | SPREAD[c & -c] << f2;
+                        for (int d = faceSuits[f3]; d != 0; d &= d - 1) {
+                            long m3 = m2 | SPREAD[d & -d] << f3;
+                            for (int e = faceSuits[f4]; e != 0; e &= e - 1) {
+                                if (emit(m3 | SPREAD[e & -e] << f4)) {
+                                    return true;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 同花五：每个花色中任取5张，面值成顺的已作为同花顺生成，跳过
+     */
+    private boolean generateFlushes(long hand) {
+        for (int suit = 0; suit < 4; suit++) {
+            int row = (int) (hand >>> (suit * 13)) & FACE_ROW;
+            int count = Integer.bitCount(row);
+            if (count < 5) {
+                continue;
+            }
+            // 在 count 张牌的下标上按 Gosper 方法枚举5元组合，再展开到实际面值
+            for (int comb = 0x1F; comb < (1 << count); comb = nextCombination(comb)) {
+                int faces = Integer.expand(comb, row);
+                if (faces == BROADWAY || faces == 0x1F << Integer.numberOfTrailingZeros(faces)) {
+                    continue;
+                }
+                if (emit((long) faces << (suit * 13))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 三带一对：每个三张与另一面值的每个对子
+     */
+    private boolean generateFullHouses(int faces) {
+        for (int t = faces; t != 0; t &= t - 1) {
+            int tripleFace = Integer.numberOfTrailingZeros(t);
+            int tripleSuits = faceSuits[tripleFace];
+            if (Integer.bitCount(tripleSuits) < 3) {
+                continue;
+            }
+            for (int ts = tripleSuits; ts != 0; ts = (ts - 1) & tripleSuits) {
+                if (Integer.bitCount(ts) != 3) {
+                    continue;
+                }
+                long triple = SPREAD[ts] << tripleFace;
+                for (int p = faces & ~(1 << tripleFace); p != 0; p &= p - 1) {
+                    int pairFace = Integer.numberOfTrailingZeros(p);
+                    int pairSuits = faceSuits[pairFace];
+                    for (int ps = pairSuits; ps != 0; ps = (ps - 1) & pairSuits) {
+                        if (Integer.bitCount(ps) == 2 && emit(triple | SPREAD[ps] << pairFace)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 四带一：四张与任意一张其他面值的牌
+     */
+    private boolean generateQuads(long hand, int faces) {
+        for (int q = faces; q != 0; q &= q - 1) {
+            int face = Integer.numberOfTrailingZeros(q);
+            if (faceSuits[face] != 0xF) {
+                continue;
+            }
+            long quad = SPREAD[0xF] << face;
+            for (long kickers = hand & ~quad; kickers != 0; kickers &= kickers - 1) {
+                if (emit(quad | (kickers & -kickers))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 校验一个候选出牌，合法则加入结果
+     * @return 是否可以停止生成（只需判断有无合法出牌且已找到）
+     */
+    private boolean emit(long mask) {
+        if (opening && (mask & DIAMOND_THREE_BIT) == 0) {
+            return false;
+        }
+        long key = rule.playKey(mask, BatchClassifier.classify(mask));
+        if (!PlayKey.isValid(key)) {
+            return false;
+        }
+        if (lastKey != PlayKey.INVALID
+                && (!rule.canCompareKeys(key, lastKey) || rule.compareKeys(key, lastKey) <= 0)) {
+            return false;
+        }
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        moves[size] = mask;
+        keys[size] = key;
+        size++;
+        return stopAtFirst;
+    }
+
+    private static int nextCombination(int comb) {
+        int lowest = comb & -comb;
+        int ripple = comb + lowest;
+        return ripple | (((ripple ^ comb) >>> 2) / lowest);
+    }
+
+    /**
+     * 上一次生成的合法出牌数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 第 i 个合法出牌的位图
+     */
+    public long moveAt(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Move index " + i + " out of range: " + size);
+        }
+        return moves[i];
+    }
+
+    /**
+     * 第 i 个合法出牌在本规则下的出牌键
+     */
+    public long keyAt(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Move index " + i + " out of range: " + size);
+        }
+        return keys[i];
+    }
+
+    /**
+     * 把迭代位置移回第一个出牌
+     */
+    public void rewind() {
+        cursor = 0;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return cursor < size;
+    }
+
+    @Override
+    public long nextLong() {
+        if (cursor >= size) {
+            throw new NoSuchElementException();
+        }
+        return moves[cursor++];
+    }
+}
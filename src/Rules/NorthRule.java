@@ -1,9 +1,5 @@
 package Rules;
 
-import java.util.List;
-import cards.*;
-import PokerPatterns.PokerPatternMatcher;
-
 /**
  * 北方规则实现
  * 允许不同张数的牌比较大小
@@ -21,29 +17,16 @@ public class NorthRule extends AbstractRule {
     }
     
     @Override
-    public boolean canCompare(List<Card> cards1, List<Card> cards2) {
-        // 只要两个牌组都是有效牌型，就可以比较
-        return isValidPattern(cards1) && isValidPattern(cards2);
+    public String getRuleName() {
+        return "北方规则";
     }
     
+    /**
+     * 任何两个有效牌型都可以比较，所有出牌同属一类
+     * 比较时先比牌型权重，再比关键牌权重，正是出牌键低位的顺序
+     */
     @Override
-    public int compareCards(List<Card> cards1, List<Card> cards2) {
-        // 如果不能比较，返回0
-        if (!canCompare(cards1, cards2)) {
-            return 0;
-        }
-        
-        // 获取牌型结果
-        PokerPatternMatcher.PatternResult result1 = getPatternResult(cards1);
-        PokerPatternMatcher.PatternResult result2 = getPatternResult(cards2);
-        
-        // 比较牌型权重
-        int weightCompare = Integer.compare(result1.getPatternWeight(), result2.getPatternWeight());
-        if (weightCompare != 0) {
-            return weightCompare;
-        }
-        
-        // 如果牌型权重相同，再比较关键牌权重
-        return Integer.compare(result1.getCriticalCardWeight(), result2.getCriticalCardWeight());
+    protected int compareClass(int count, int patternWeight) {
+        return 0;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,131 @@
+package Rules;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongToIntFunction;
+
+/**
+ * 有界的牌型判断结果缓存，以一手牌的52位位图为键
+ * 组相联结构：每个位图散列到一组，每组 WAYS 路，组内按 CLOCK（二次机会）算法淘汰
+ * 每个表项是一个 long：低52位为位图，高12位为打包的判断结果（牌型权重 << 8 | 关键牌权重），
+ * 读写都是单个原子操作，读取时比对位图即可确认命中，因此无需加锁；
+ * 并发写入同一组时可能互相覆盖，只会造成多一次未命中，不会返回错误结果
+ */
+public final class PatternCache {
+    private static final int WAYS = 4;
+    private static final long MASK_BITS = (1L << 52) - 1;
+    private static final int RESULT_SHIFT = 52;
+
+    private final int setBits;
+    private final AtomicLongArray entries;  // 第 set * WAYS + way 项
+    private final AtomicIntegerArray clock; // 每组的状态：低 WAYS 位为引用位，其上为时钟指针
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param sets 组数，向上取整为2的幂；总容量为 sets * 4
+     */
+    public PatternCache(int sets) {
+        if (sets <= 0) {
+            throw new IllegalArgumentException("Cache set count must be positive: " + sets);
+        }
+        int rounded = Integer.highestOneBit(sets);
+        if (rounded < sets) {
+            rounded <<= 1;
+        }
+        this.setBits = Integer.numberOfTrailingZeros(rounded);
+        this.entries = new AtomicLongArray(rounded * WAYS);
+        this.clock = new AtomicIntegerArray(rounded);
+    }
+
+    /**
+     * 查询位图的判断结果，未命中时调用 classifier 计算并放入缓存
+     * @param mask 非空的52位位图
+     * @param classifier 由位图计算打包结果的函数
+     * @return 打包的判断结果，0 表示无效牌型
+     */
+    public int get(long mask, LongToIntFunction classifier) {
+        int set = indexOf(mask);
+        int base = set * WAYS;
+        for (int way = 0; way < WAYS; way++) {
+            long entry = entries.get(base + way);
+            if ((entry & MASK_BITS) == mask) {
+                hits.increment();
+                int state = clock.get(set);
+                if ((state & (1 << way)) == 0) {
+                    clock.set(set, state | (1 << way));
+                }
+                return (int) (entry >>> RESULT_SHIFT);
+            }
+        }
+        misses.increment();
+        int packed = classifier.applyAsInt(mask);
+        insert(set, base, mask | (long) packed << RESULT_SHIFT);
+        return packed;
+    }
+
+    /**
+     * CLOCK 淘汰：从指针处开始，清除途经各路的引用位，替换第一个引用位为0的路
+     */
+    private void insert(int set, int base, long entry) {
+        int state = clock.get(set);
+        int refs = state & ((1 << WAYS) - 1);
+        int hand = state >>> WAYS;
+        while ((refs & (1 << hand)) != 0) {
+            refs &= ~(1 << hand);
+            hand = (hand + 1) % WAYS;
+        }
+        entries.set(base + hand, entry);
+        // 新表项引用位为0，再次被访问时才获得第二次机会
+        clock.set(set, ((hand + 1) % WAYS) << WAYS | refs);
+    }
+
+    private int indexOf(long mask) {
+        return (int) ((mask * 0x9E3779B97F4A7C15L) >>> (64 - setBits));
+    }
+
+    /**
+     * 容量（表项数）
+     */
+    public int capacity() {
+        return entries.length();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * 命中率，尚无查询时返回0
+     */
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * 清空全部表项与计数
+     */
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++) {
+            entries.set(i, 0L);
+        }
+        for (int i = 0; i < clock.length(); i++) {
+            clock.set(i, 0);
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PatternCache[容量=%d, 命中=%d, 未命中=%d, 命中率=%.1f%%]",
+                capacity(), getHits(), getMisses(), getHitRate() * 100);
+    }
+}
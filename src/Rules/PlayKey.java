@@ -0,0 +1,79 @@
+package Rules;
+
+/**
+ * 出牌键：把一手牌的比较信息打包成一个 long，比较两手牌只需比较两个整数
+ * 位布局：
+ *   0-7   关键牌权重
+ *   8-11  牌型权重
+ *   16-23 可比较类别，由规则决定：北方规则恒为0（任意有效牌型都能比较），
+ *         南方规则为 张数 << 4 | 牌型权重（张数与牌型都相同才能比较）
+ *   32    有效标志
+ * 无效牌型的键为 INVALID（0）
+ * 同一规则下，两个键类别相同即可比较，比较结果就是低16位（牌型权重、关键牌权重）的大小
+ */
+public final class PlayKey {
+    public static final long INVALID = 0L;
+
+    private static final long VALID = 1L << 32;
+    private static final int CLASS_SHIFT = 16;
+    private static final long CLASS_MASK = 0xFFL << CLASS_SHIFT;
+    private static final long ORDER_MASK = 0xFFFFL;
+
+    private PlayKey() {}
+
+    /**
+     * 打包一个有效出牌的键
+     * @param classBits 可比较类别（0-255）
+     * @param patternWeight 牌型权重
+     * @param criticalWeight 关键牌权重
+     */
+    public static long of(int classBits, int patternWeight, int criticalWeight) {
+        return VALID | (long) classBits << CLASS_SHIFT | patternWeight << 8 | criticalWeight;
+    }
+
+    /**
+     * 键是否表示有效牌型
+     */
+    public static boolean isValid(long key) {
+        return (key & VALID) != 0;
+    }
+
+    /**
+     * 两个键是否可以比较：都有效且类别相同
+     */
+    public static boolean canCompare(long key1, long key2) {
+        return (key1 & key2 & VALID) != 0 && ((key1 ^ key2) & CLASS_MASK) == 0;
+    }
+
+    /**
+     * 比较两个键
+     * @return 1: key1大, -1: key2大, 0: 相等或无法比较
+     */
+    public static int compare(long key1, long key2) {
+        if (!canCompare(key1, key2)) {
+            return 0;
+        }
+        return Long.signum((key1 & ORDER_MASK) - (key2 & ORDER_MASK));
+    }
+
+    /**
+     * 与 key 同类别的键中最大的可能值；按键排序时，同类别中比 key 大的键都落在 (key, classMax(key)] 内
+     */
+    public static long classMax(long key) {
+        return key | ORDER_MASK;
+    }
+
+    /**
+     * 键中的牌型权重（0 表示无效）
+     */
+    public static int patternWeightOf(long key) {
+        return (int) (key >>> 8) & 0xF;
+    }
+
+    /**
+     * 键中的关键牌权重
+     */
+    public static int criticalWeightOf(long key) {
+        return (int) key & 0xFF;
+    }
+}
@@ -37,4 +37,82 @@ public interface Rule {
      * @return 牌型名称
      */
     String getPatternName(List<Card> cards);
+
+    /**
+     * 规则名称，用于界面显示
+     */
+    default String getRuleName() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * 计算一手牌在本规则下的出牌键（见 PlayKey）
+     * 同一手牌只需计算一次，之后的比较都用键完成
+     * @param cards 牌组
+     * @return 出牌键，无效牌型返回 PlayKey.INVALID
+     */
+    long playKey(List<Card> cards);
+
+    /**
+     * 计算52位位图表示的一手牌的出牌键
+     */
+    long playKey(long mask);
+
+    /**
+     * 由已得到的判断结果计算出牌键，供先批量判断（如 BatchClassifier）再求键的场合使用
+     * @param mask 52位位图
+     * @param packed mask 的打包判断结果（牌型权重 << 8 | 关键牌权重）
+     */
+    long playKey(long mask, int packed);
+
+    /**
+     * 计算一手牌的出牌键（牌集合版本）
+     */
+    default long playKey(CardSet cards) {
+        return playKey(cards.getMask());
+    }
+
+    /**
+     * 两个出牌键是否可以比较大小
+     */
+    default boolean canCompareKeys(long key1, long key2) {
+        return PlayKey.canCompare(key1, key2);
+    }
+
+    /**
+     * 比较两个出牌键
+     * @return 1: key1大, -1: key2大, 0: 相等或无法比较
+     */
+    default int compareKeys(long key1, long key2) {
+        return PlayKey.compare(key1, key2);
+    }
+
+    /**
+     * 判断两组牌是否可以比较大小（牌集合版本）
+     */
+    default boolean canCompare(CardSet cards1, CardSet cards2) {
+        return canCompareKeys(playKey(cards1), playKey(cards2));
+    }
+
+    /**
+     * 比较两组牌的大小（牌集合版本）
+     * @return 1: cards1大, -1: cards2大, 0: 相等或无法比较
+     */
+    default int compareCards(CardSet cards1, CardSet cards2) {
+        return compareKeys(playKey(cards1), playKey(cards2));
+    }
+
+    /**
+     * 判断一组牌是否为有效牌型（牌集合版本）
+     */
+    default boolean isValidPattern(CardSet cards) {
+        return PlayKey.isValid(playKey(cards));
+    }
+
+    /**
+     * 获取牌型的名称（牌集合版本）
+     */
+    default String getPatternName(CardSet cards) {
+        return getPatternName(cards.toList());
+    }
 } 
\ No newline at end of file
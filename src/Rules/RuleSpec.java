@@ -0,0 +1,247 @@
+package Rules;
+
+import java.util.Arrays;
+import PokerPatterns.Flush;
+import PokerPatterns.FourofaKind;
+import PokerPatterns.FullHouse;
+import PokerPatterns.One;
+import PokerPatterns.Pair;
+import PokerPatterns.PokerPattern;
+import PokerPatterns.Straight;
+import PokerPatterns.StraightFlush;
+import PokerPatterns.Three;
+import cards.Rank;
+import cards.Suit;
+
+/**
+ * 声明式的规则描述，用于定义各地的房规而不必手写规则类
+ * 包含：花色大小顺序、点数大小顺序、允许的出牌张数、不同张数能否比较、
+ * 同张数不同牌型能否比较，以及牌型之间的大小顺序（未列出的牌型视为不允许）
+ * 由 compile() 编译为 CompiledRule，比较时只查预先算好的表
+ *
+ * 牌型的识别（什么是顺子、同花等）与原有牌型类一致，规则只改变大小顺序
+ */
+public final class RuleSpec {
+    private final String name;
+    private final Suit[] suitOrder;            // 从小到大
+    private final Rank[] rankOrder;            // 从小到大
+    private final boolean[] legalCounts;       // 下标为张数
+    private final boolean crossSizeComparable;
+    private final boolean crossPatternComparable;
+    private final PokerPattern[] patternOrder; // 从小到大
+
+    private RuleSpec(Builder builder) {
+        this.name = builder.name;
+        this.suitOrder = builder.suitOrder.clone();
+        this.rankOrder = builder.rankOrder.clone();
+        this.legalCounts = builder.legalCounts.clone();
+        this.crossSizeComparable = builder.crossSizeComparable;
+        this.crossPatternComparable = builder.crossPatternComparable;
+        this.patternOrder = builder.patternOrder.clone();
+    }
+
+    /**
+     * 与 NorthRule 等价的描述：任意两个有效牌型都能比较，先比牌型再比关键牌
+     */
+    public static RuleSpec north() {
+        return builder("北方规则").crossSizeComparable(true).crossPatternComparable(true).build();
+    }
+
+    /**
+     * 与 SouthRule 等价的描述：只有张数与牌型都相同才能比较
+     */
+    public static RuleSpec south() {
+        return builder("南方规则").crossSizeComparable(false).crossPatternComparable(false).build();
+    }
+
+    /**
+     * 以标准顺序（方片 < 梅花 < 红桃 < 黑桃，3 < 4 < ... < A < 2，牌型按权重）为起点创建描述
+     */
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    /**
+     * 以当前描述为起点修改出一个新的描述
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder(name);
+        builder.suitOrder = suitOrder.clone();
+        builder.rankOrder = rankOrder.clone();
+        builder.legalCounts = legalCounts.clone();
+        builder.crossSizeComparable = crossSizeComparable;
+        builder.crossPatternComparable = crossPatternComparable;
+        builder.patternOrder = patternOrder.clone();
+        return builder;
+    }
+
+    /**
+     * 编译为规则对象
+     */
+    public CompiledRule compile() {
+        return new CompiledRule(this);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 花色在大小顺序中的位置（0 最小）
+     */
+    public int suitPosition(Suit suit) {
+        return indexOf(suitOrder, suit);
+    }
+
+    /**
+     * 点数在大小顺序中的位置（0 最小）
+     */
+    public int rankPosition(Rank rank) {
+        return indexOf(rankOrder, rank);
+    }
+
+    public boolean isLegalCount(int count) {
+        return count >= 0 && count < legalCounts.length && legalCounts[count];
+    }
+
+    public boolean isCrossSizeComparable() {
+        return crossSizeComparable;
+    }
+
+    public boolean isCrossPatternComparable() {
+        return crossPatternComparable;
+    }
+
+    /**
+     * 牌型在大小顺序中的位置，从1开始；不允许的牌型返回0
+     * @param patternWeight 牌型类定义的权重
+     */
+    public int patternPrecedence(int patternWeight) {
+        for (int i = 0; i < patternOrder.length; i++) {
+            if (patternOrder[i].getPatternWeight() == patternWeight) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static int indexOf(Object[] order, Object value) {
+        for (int i = 0; i < order.length; i++) {
+            if (order[i] == value) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Value not in order: " + value);
+    }
+
+    @Override
+    public String toString() {
+        return name + "[花色" + Arrays.toString(suitOrder) + ", 点数" + Arrays.toString(rankOrder)
+                + ", 跨张数比较=" + crossSizeComparable + ", 跨牌型比较=" + crossPatternComparable + "]";
+    }
+
+    public static final class Builder {
+        private final String name;
+        private Suit[] suitOrder = {Suit.DIAMONDS, Suit.CLUBS, Suit.HEARTS, Suit.SPADES};
+        private Rank[] rankOrder = {Rank.THREE, Rank.FOUR, Rank.FIVE, Rank.SIX, Rank.SEVEN, Rank.EIGHT, Rank.NINE,
+                Rank.TEN, Rank.JACK, Rank.QUEEN, Rank.KING, Rank.ACE, Rank.TWO};
+        private boolean[] legalCounts = {false, true, true, true, false, true};
+        private boolean crossSizeComparable = false;
+        private boolean crossPatternComparable = false;
+        private PokerPattern[] patternOrder = {One.getInstance(), Pair.getInstance(), Three.getInstance(),
+                Straight.getInstance(), Flush.getInstance(), FullHouse.getInstance(),
+                FourofaKind.getInstance(), StraightFlush.getInstance()};
+
+        private Builder(String name) {
+            if (name == null || name.isEmpty()) {
+                throw new IllegalArgumentException("Rule name must not be empty");
+            }
+            this.name = name;
+        }
+
+        /**
+         * 花色从小到大的顺序，必须恰好包含4种花色
+         */
+        public Builder suitOrder(Suit... lowToHigh) {
+            requirePermutation(lowToHigh, Suit.values().length, "suit");
+            this.suitOrder = lowToHigh.clone();
+            return this;
+        }
+
+        /**
+         * 点数从小到大的顺序，必须恰好包含13种点数
+         */
+        public Builder rankOrder(Rank... lowToHigh) {
+            requirePermutation(lowToHigh, Rank.values().length, "rank");
+            this.rankOrder = lowToHigh.clone();
+            return this;
+        }
+
+        /**
+         * 允许的出牌张数，只能取 1、2、3、5
+         */
+        public Builder legalCounts(int... counts) {
+            boolean[] legal = new boolean[6];
+            for (int count : counts) {
+                if (count != 1 && count != 2 && count != 3 && count != 5) {
+                    throw new IllegalArgumentException("Unsupported card count: " + count);
+                }
+                legal[count] = true;
+            }
+            this.legalCounts = legal;
+            return this;
+        }
+
+        /**
+         * 不同张数的牌能否比较（北方规则为 true）
+         */
+        public Builder crossSizeComparable(boolean comparable) {
+            this.crossSizeComparable = comparable;
+            return this;
+        }
+
+        /**
+         * 同张数不同牌型的牌能否比较（北方规则为 true）
+         */
+        public Builder crossPatternComparable(boolean comparable) {
+            this.crossPatternComparable = comparable;
+            return this;
+        }
+
+        /**
+         * 牌型从小到大的顺序，未列出的牌型不允许出
+         */
+        public Builder patternOrder(PokerPattern... lowToHigh) {
+            requirePermutation(lowToHigh, lowToHigh.length, "pattern");
+            if (lowToHigh.length == 0) {
+                throw new IllegalArgumentException("At least one pattern is required");
+            }
+            this.patternOrder = lowToHigh.clone();
+            return this;
+        }
+
+        public RuleSpec build() {
+            // 跨张数比较时必须同时允许跨牌型比较，否则不同张数的牌牌型必然不同，永远无法比较
+            if (crossSizeComparable && !crossPatternComparable) {
+                throw new IllegalStateException("Cross-size comparison requires cross-pattern comparison");
+            }
+            return new RuleSpec(this);
+        }
+
+        private static void requirePermutation(Object[] values, int expectedLength, String what) {
+            if (values == null || values.length != expectedLength) {
+                throw new IllegalArgumentException("Expected " + expectedLength + " distinct " + what + " values");
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    throw new IllegalArgumentException("Null " + what + " in order");
+                }
+                for (int j = 0; j < i; j++) {
+                    if (values[i] == values[j]) {
+                        throw new IllegalArgumentException("Duplicate " + what + " in order: " + values[i]);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,22 +1,95 @@
 package cards;
-import java.util.Objects;
 public class Card {
+    // 52张牌的规范实例，Card.of 总是返回这里的对象
+    private static final Card[] CARDS = new Card[52];
+
+    // 以 intValue 为下标的预计算查找表
+    private static final int[] WEIGHTS = new int[52];        // 复合权重
+    private static final int[] RANK_WEIGHTS = new int[52];   // 点数权重 3..15
+    private static final int[] RANK_VALUES = new int[52];    // 面值 intValue % 13
+    private static final int[] SUIT_VALUES = new int[52];    // 花色 intValue / 13
+    private static final String[] DISPLAY_NAMES = new String[52];
+
+    static {
+        for (int i = 0; i < 52; i++) {
+            Suit suit = Suit.fromValue(i / 13);
+            Rank rank = Rank.fromValue(i % 13);
+
+            // 点数权重: 2(15) > A(14) > K(13) > ... > 3(3)
+            int rankValue = rank.getValue();
+            int rankWeight;
+            if (rankValue == 0) rankWeight = 14; // A
+            else if (rankValue == 1) rankWeight = 15; // 2
+            else rankWeight = rankValue + 1; // 3-K (值2-12) + 1 = 3-13
+
+            // 花色权重 (黑桃最大)
+            int suitWeight = 3 - suit.getValue();
+
+            RANK_WEIGHTS[i] = rankWeight;
+            WEIGHTS[i] = rankWeight * 10 + suitWeight;
+            RANK_VALUES[i] = rankValue;
+            SUIT_VALUES[i] = suit.getValue();
+            DISPLAY_NAMES[i] = suit.getDisplayName() + rank.getDisplayName();
+            CARDS[i] = new Card(i, suit, rank);
+        }
+    }
+
     private final int intValue; // 0-51 的整数表示
     private final Suit suit;
     private final Rank rank;
 
+    private Card(int intValue, Suit suit, Rank rank) {
+        this.intValue = intValue;
+        this.suit = suit;
+        this.rank = rank;
+    }
+
     /**
-     * 根据0-51的整数值创建一张牌
+     * 根据0-51的整数值获取一张牌
+     * 同一个整数值总是返回同一个实例，不会分配新对象
      * @param intValue 0-51之间的整数
      * @throws IllegalArgumentException 如果intValue超出范围
      */
-    public Card(int intValue) {
+    public static Card of(int intValue) {
         if (intValue < 0 || intValue > 51) {
             throw new IllegalArgumentException("Card value must be between 0 and 51, inclusive. Got: " + intValue);
         }
-        this.intValue = intValue;
-        this.suit = Suit.fromValue(intValue / 13);
-        this.rank = Rank.fromValue(intValue % 13);
+        return CARDS[intValue];
+    }
+
+    /**
+     * 查表获取指定intValue的牌的复合权重
+     */
+    public static int weightOf(int intValue) {
+        return WEIGHTS[intValue];
+    }
+
+    /**
+     * 查表获取指定intValue的牌的点数权重（3..15）
+     */
+    public static int rankWeightOf(int intValue) {
+        return RANK_WEIGHTS[intValue];
+    }
+
+    /**
+     * 查表获取指定intValue的牌的面值（0 为 A，12 为 K）
+     */
+    public static int rankValueOf(int intValue) {
+        return RANK_VALUES[intValue];
+    }
+
+    /**
+     * 查表获取指定intValue的牌的花色值（0 为黑桃，3 为方片）
+     */
+    public static int suitValueOf(int intValue) {
+        return SUIT_VALUES[intValue];
+    }
+
+    /**
+     * 查表获取指定intValue的牌的显示名称
+     */
+    public static String displayNameOf(int intValue) {
+        return DISPLAY_NAMES[intValue];
     }
 
     public int getIntValue() {
@@ -31,12 +104,33 @@ public class Card {
         return rank;
     }
 
+    /**
+     * 获取面值，等价于 getRank().getValue()
+     */
+    public int getRankValue() {
+        return RANK_VALUES[intValue];
+    }
+
+    /**
+     * 获取花色值，等价于 getSuit().getValue()
+     */
+    public int getSuitValue() {
+        return SUIT_VALUES[intValue];
+    }
+
+    /**
+     * 获取点数权重：2(15) > A(14) > K(13) > ... > 3(3)
+     */
+    public int getRankWeight() {
+        return RANK_WEIGHTS[intValue];
+    }
+
     /**
      * 获取牌的显示名称，例如 "红桃A", "黑桃K"
      * @return 牌的字符串表示
      */
     public String getDisplayName() {
-        return suit.getDisplayName() + rank.getDisplayName();
+        return DISPLAY_NAMES[intValue];
     }
 
     @Override
@@ -54,7 +148,7 @@ public class Card {
 
     @Override
     public int hashCode() {
-        return Objects.hash(intValue);
+        return intValue;
     }
 
     // 示例：获取牌在某些游戏中的点数（例如，J,Q,K为10，A为1或11）
@@ -65,27 +159,17 @@ public class Card {
         if (rank.getValue() >= Rank.TEN.getValue()) return 10; // J, Q, K
         return rank.getValue() + 1; // 2-9 (rank.value 1-8) + 1
     }
-    
+
     /**
      * 获取牌的权重值，用于比较大小
      * 按照 PokerPattern 定义的规则：
      * 点数规则: 2(15) > A(14) > K(13) > ... > 3(3)
      * 花色规则: 黑桃(3) > 红桃(2) > 梅花(1) > 方片(0)
      * 复合权重公式: 点数权重*10 + 花色权重
+     * 权重在类加载时预先算好，这里只是查表
      * @return 牌的复合权重值
      */
     public int getWeight() {
-        // 计算点数权重
-        int rankWeight;
-        int rankValue = rank.getValue();
-        if (rankValue == 0) rankWeight = 14; // A
-        else if (rankValue == 1) rankWeight = 15; // 2
-        else rankWeight = rankValue + 1; // 3-K (值2-12) + 1 = 3-13
-        
-        // 计算花色权重 (黑桃最大)
-        int suitWeight = 3 - suit.getValue();
-        
-        // 返回复合权重
-        return rankWeight * 10 + suitWeight;
-    }
-}
\ No newline at end of file
+        return WEIGHTS[intValue];
+    }
+}
@@ -0,0 +1,232 @@
+package cards;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 基于52位位图的牌集合
+ * 第 i 位对应 intValue 为 i 的牌（见 Card.getIntValue()）
+ * 增删查均为常数时间，张数通过 popcount 计算，遍历按牌的权重从小到大进行
+ */
+public final class CardSet implements Iterable<Card> {
+    public static final long FULL_DECK = (1L << 52) - 1; // 整副牌的位图
+
+    // 按权重从小到大排列的52张牌的intValue
+    private static final int[] WEIGHT_ORDER = new int[52];
+
+    static {
+        // 权重以点数为主：3,4,...,K,A,2；同点数下花色从小到大：方片,梅花,红桃,黑桃
+        int index = 0;
+        for (int i = 0; i < 13; i++) {
+            int rankValue = (i + 2) % 13; // 3(2),4(3),...,K(12),A(0),2(1)
+            for (int suitValue = 3; suitValue >= 0; suitValue--) {
+                WEIGHT_ORDER[index++] = suitValue * 13 + rankValue;
+            }
+        }
+    }
+
+    private long mask;
+
+    /**
+     * 创建一个空的牌集合
+     */
+    public CardSet() {
+        this.mask = 0L;
+    }
+
+    private CardSet(long mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * 根据位图创建牌集合
+     * @param mask 52位位图
+     * @throws IllegalArgumentException 如果位图包含第52位及以上的位
+     */
+    public static CardSet of(long mask) {
+        if ((mask & ~FULL_DECK) != 0) {
+            throw new IllegalArgumentException("Card mask must only use the low 52 bits. Got: " + Long.toHexString(mask));
+        }
+        return new CardSet(mask);
+    }
+
+    /**
+     * 根据牌列表创建牌集合，重复的牌只保留一张
+     */
+    public static CardSet fromList(Collection<Card> cards) {
+        return new CardSet(maskOf(cards));
+    }
+
+    /**
+     * 计算牌列表对应的位图
+     */
+    public static long maskOf(Collection<Card> cards) {
+        long result = 0L;
+        if (cards != null) {
+            for (Card card : cards) {
+                result |= 1L << card.getIntValue();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 单张牌对应的位
+     */
+    public static long bitOf(Card card) {
+        return 1L << card.getIntValue();
+    }
+
+    public long getMask() {
+        return mask;
+    }
+
+    /**
+     * 加入一张牌
+     * @return 如果这张牌原先不在集合中返回true
+     */
+    public boolean add(Card card) {
+        long bit = bitOf(card);
+        boolean added = (mask & bit) == 0;
+        mask |= bit;
+        return added;
+    }
+
+    /**
+     * 移除一张牌
+     * @return 如果这张牌原先在集合中返回true
+     */
+    public boolean remove(Card card) {
+        long bit = bitOf(card);
+        boolean removed = (mask & bit) != 0;
+        mask &= ~bit;
+        return removed;
+    }
+
+    public boolean contains(Card card) {
+        return (mask & bitOf(card)) != 0;
+    }
+
+    /**
+     * 判断是否包含指定intValue的牌
+     */
+    public boolean contains(int intValue) {
+        return intValue >= 0 && intValue < 52 && (mask & (1L << intValue)) != 0;
+    }
+
+    public void addAll(CardSet other) {
+        mask |= other.mask;
+    }
+
+    public void removeAll(CardSet other) {
+        mask &= ~other.mask;
+    }
+
+    /**
+     * 加入位图中的牌（只取低52位）
+     */
+    public void addAll(long cards) {
+        mask |= cards & FULL_DECK;
+    }
+
+    /**
+     * 移除位图中的牌
+     */
+    public void removeAll(long cards) {
+        mask &= ~cards;
+    }
+
+    public boolean containsAll(CardSet other) {
+        return (other.mask & ~mask) == 0;
+    }
+
+    public int size() {
+        return Long.bitCount(mask);
+    }
+
+    public boolean isEmpty() {
+        return mask == 0L;
+    }
+
+    public void clear() {
+        mask = 0L;
+    }
+
+    public CardSet copy() {
+        return new CardSet(mask);
+    }
+
+    /**
+     * 按权重从小到大遍历
+     */
+    @Override
+    public Iterator<Card> iterator() {
+        return new Iterator<Card>() {
+            private final long snapshot = mask;
+            private int remaining = Long.bitCount(mask);
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public Card next() {
+                if (remaining <= 0) {
+                    throw new NoSuchElementException();
+                }
+                while ((snapshot & (1L << WEIGHT_ORDER[position])) == 0) {
+                    position++;
+                }
+                remaining--;
+                return Card.of(WEIGHT_ORDER[position++]);
+            }
+        };
+    }
+
+    /**
+     * 转换为按权重从小到大排列的牌列表
+     */
+    public List<Card> toList() {
+        List<Card> cards = new ArrayList<>(size());
+        for (Card card : this) {
+            cards.add(card);
+        }
+        return cards;
+    }
+
+    /**
+     * 转换为按权重从大到小排列的牌列表（与 Player.sortHand 的顺序一致）
+     */
+    public List<Card> toDescendingList() {
+        List<Card> cards = new ArrayList<>(size());
+        for (int i = 51; i >= 0; i--) {
+            int intValue = WEIGHT_ORDER[i];
+            if ((mask & (1L << intValue)) != 0) {
+                cards.add(Card.of(intValue));
+            }
+        }
+        return cards;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return mask == ((CardSet) o).mask;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(mask);
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+}
@@ -0,0 +1,109 @@
+package cards;
+
+/**
+ * 牌组合的组合数索引（combinatorial number system，按 colex 顺序）
+ * 把52张牌中任意 k 张的组合映射为 [0, C(52,k)) 内的稠密整数，反之亦然
+ * 组合以 CardSet 的52位位图表示，第 i 位对应 intValue 为 i 的牌
+ * 5张牌共 2,598,960 个索引（可用 int），13张手牌共 635,013,559,600 个索引（需用 long）
+ * 便于用原始类型数组代替以牌列表为键的 HashMap 做查找表、缓存等
+ */
+public final class CombinatorialIndex {
+    // BINOMIAL[k][n] = C(n, k)，按 k 分行便于还原时在同一行内二分查找；C(52, 26) 仍在 long 范围内
+    private static final long[][] BINOMIAL = new long[53][53];
+
+    static {
+        for (int n = 0; n <= 52; n++) {
+            BINOMIAL[0][n] = 1;
+            for (int k = 1; k <= n; k++) {
+                BINOMIAL[k][n] = BINOMIAL[k - 1][n - 1] + BINOMIAL[k][n - 1];
+            }
+        }
+    }
+
+    public static final int FIVE_CARD_COUNT = (int) BINOMIAL[5][52];   // 2,598,960
+    public static final long HAND_COUNT = BINOMIAL[13][52];            // 635,013,559,600
+
+    private CombinatorialIndex() {}
+
+    /**
+     * 组合数 C(n, k)，k 超出 [0, n] 时返回0
+     */
+    public static long binomial(int n, int k) {
+        if (n < 0 || k < 0 || k > n) {
+            return 0;
+        }
+        return BINOMIAL[k][n];
+    }
+
+    /**
+     * k 张牌的组合总数 C(52, k)
+     */
+    public static long count(int k) {
+        return binomial(52, k);
+    }
+
+    /**
+     * 计算一个组合的索引
+     * 设组合中的牌从小到大为 c1 < c2 < ... < ck，索引为 C(c1,1) + C(c2,2) + ... + C(ck,k)
+     * @param mask 52位位图
+     * @return [0, C(52, bitCount(mask))) 内的索引
+     */
+    public static long rank(long mask) {
+        long index = 0;
+        int i = 1;
+        while (mask != 0) {
+            int c = Long.numberOfTrailingZeros(mask);
+            index += BINOMIAL[i++][c];
+            mask &= mask - 1;
+        }
+        return index;
+    }
+
+    /**
+     * 计算5张牌组合的索引
+     * @param mask 恰好5位为1的52位位图
+     * @return [0, 2598960) 内的索引
+     */
+    public static int rank5(long mask) {
+        int c1 = Long.numberOfTrailingZeros(mask);
+        mask &= mask - 1;
+        int c2 = Long.numberOfTrailingZeros(mask);
+        mask &= mask - 1;
+        int c3 = Long.numberOfTrailingZeros(mask);
+        mask &= mask - 1;
+        int c4 = Long.numberOfTrailingZeros(mask);
+        mask &= mask - 1;
+        int c5 = Long.numberOfTrailingZeros(mask);
+        return (int) (BINOMIAL[1][c1] + BINOMIAL[2][c2] + BINOMIAL[3][c3] + BINOMIAL[4][c4] + BINOMIAL[5][c5]);
+    }
+
+    /**
+     * 由索引还原组合
+     * @param index [0, C(52, k)) 内的索引
+     * @param k 组合中的牌数
+     * @return 52位位图
+     * @throws IllegalArgumentException 如果索引或 k 超出范围
+     */
+    public static long unrank(long index, int k) {
+        if (k < 0 || k > 52 || index < 0 || index >= BINOMIAL[k][52]) {
+            throw new IllegalArgumentException("Invalid combination index " + index + " for k=" + k);
+        }
+        long mask = 0L;
+        int c = 51;
+        for (int i = k; i >= 2; i--) {
+            // 找到最大的 c 使得 C(c, i) <= index；c 单调递减，整个还原过程最多扫描52次，分支可预测
+            long[] row = BINOMIAL[i];
+            while (row[c] > index) {
+                c--;
+            }
+            mask |= 1L << c;
+            index -= row[c];
+            c--;
+        }
+        if (k >= 1) {
+            // C(c, 1) = c，最后一张牌就是剩余的索引本身
+            mask |= 1L << index;
+        }
+        return mask;
+    }
+}
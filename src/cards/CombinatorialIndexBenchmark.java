@@ -0,0 +1,62 @@
+package cards;
+
+import java.util.SplittableRandom;
+
+/**
+ * CombinatorialIndex 的吞吐量测试
+ * 分别对随机的5张牌组合与13张手牌做索引计算与还原，输出每秒操作数
+ * 运行：java cards.CombinatorialIndexBenchmark [每轮次数]
+ */
+public class CombinatorialIndexBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int samples = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+        SplittableRandom random = new SplittableRandom(2024);
+
+        for (int k : new int[] {5, 13}) {
+            // 预先生成随机组合，避免把洗牌时间计入测试
+            long[] masks = new long[samples];
+            Deck deck = new Deck(random);
+            for (int i = 0; i < samples; i++) {
+                deck.reset();
+                masks[i] = deck.dealCards(k).getMask();
+            }
+            long[] indices = new long[samples];
+
+            System.out.println("===== " + k + " 张牌，共 " + CombinatorialIndex.count(k) + " 个索引 =====");
+            for (int round = 1; round <= ROUNDS; round++) {
+                long start = System.nanoTime();
+                if (k == 5) {
+                    for (int i = 0; i < samples; i++) {
+                        indices[i] = CombinatorialIndex.rank5(masks[i]);
+                    }
+                } else {
+                    for (int i = 0; i < samples; i++) {
+                        indices[i] = CombinatorialIndex.rank(masks[i]);
+                    }
+                }
+                long rankTime = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                long check = 0;
+                for (int i = 0; i < samples; i++) {
+                    check ^= CombinatorialIndex.unrank(indices[i], k);
+                }
+                long unrankTime = System.nanoTime() - start;
+
+                // 校验还原结果，同时防止循环被优化掉
+                long expected = 0;
+                for (int i = 0; i < samples; i++) {
+                    expected ^= masks[i];
+                }
+                if (check != expected) {
+                    throw new IllegalStateException("unrank(rank(x)) != x");
+                }
+
+                System.out.printf("第%d轮  rank: %.1f M/s  unrank: %.1f M/s%n", round,
+                        samples * 1e3 / rankTime, samples * 1e3 / unrankTime);
+            }
+        }
+    }
+}
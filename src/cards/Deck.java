@@ -3,38 +3,138 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.SplittableRandom;
 
+/**
+ * 牌堆
+ * 以 byte[52] 保存剩余牌的 intValue，数组末尾为牌堆顶
+ * 洗牌使用调用方提供的 SplittableRandom 做 Fisher–Yates，相同种子得到相同的发牌结果
+ */
 public class Deck {
-    private List<Card> cards;
+    private final byte[] cards = new byte[52];
+    private int remaining;
+    private final SplittableRandom random;
 
+    /**
+     * 使用随机种子创建并洗好一副牌
+     */
     public Deck() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * 使用指定种子创建并洗好一副牌，便于复现牌局
+     * @param seed 随机种子
+     */
+    public Deck(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    /**
+     * 使用调用方提供的随机数发生器创建并洗好一副牌
+     * @param random 随机数发生器，之后的洗牌也会使用它
+     */
+    public Deck(SplittableRandom random) {
+        this.random = random;
         initializeDeck();
         shuffle();
     }
 
     private void initializeDeck() {
-        cards = new ArrayList<>(52);
         for (int i = 0; i < 52; i++) {
-            cards.add(new Card(i));
+            cards[i] = (byte) i;
         }
+        remaining = 52;
     }
 
+    /**
+     * 收回所有牌并重新洗牌，便于在大量模拟中重复使用同一个牌堆
+     */
+    public void reset() {
+        initializeDeck();
+        shuffle();
+    }
+
+    /**
+     * 对剩余的牌做 Fisher–Yates 洗牌
+     */
     public void shuffle() {
-        Collections.shuffle(cards);
+        for (int i = remaining - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte temp = cards[i];
+            cards[i] = cards[j];
+            cards[j] = temp;
+        }
     }
 
     public Optional<Card> dealCard() {
-        if (cards.isEmpty()) {
+        if (remaining == 0) {
             return Optional.empty(); // 或者抛出异常
         }
-        return Optional.of(cards.remove(cards.size() - 1)); // 从牌堆顶发牌
+        return Optional.of(Card.of(cards[--remaining])); // 从牌堆顶发牌
+    }
+
+    /**
+     * 从牌堆顶一次发出多张牌
+     * @param count 要发的张数，超过剩余张数时只发剩余的牌
+     * @return 发出的牌集合
+     */
+    public CardSet dealCards(int count) {
+        return CardSet.of(dealMask(Math.min(count, remaining)));
+    }
+
+    /**
+     * 一次性给所有玩家发牌，结果直接写入位图数组
+     * @param hands 每个元素接收一位玩家的手牌位图（会被覆盖）
+     * @param cardsPerHand 每位玩家的张数
+     * @throws IllegalArgumentException 如果剩余的牌不够发
+     */
+    public void dealHands(long[] hands, int cardsPerHand) {
+        if (hands.length * cardsPerHand > remaining) {
+            throw new IllegalArgumentException("Not enough cards to deal " + hands.length + " hands of "
+                    + cardsPerHand + ". Remaining: " + remaining);
+        }
+        for (int p = 0; p < hands.length; p++) {
+            hands[p] = dealMask(cardsPerHand);
+        }
+    }
+
+    /**
+     * 一次性给所有玩家发牌，结果以 intValue 写入数组
+     * @param hands 每行接收一位玩家的手牌，行长度即每位玩家的张数
+     * @throws IllegalArgumentException 如果剩余的牌不够发
+     */
+    public void dealHands(byte[][] hands) {
+        int total = 0;
+        for (byte[] hand : hands) {
+            total += hand.length;
+        }
+        if (total > remaining) {
+            throw new IllegalArgumentException("Not enough cards to deal " + total + ". Remaining: " + remaining);
+        }
+        for (byte[] hand : hands) {
+            remaining -= hand.length;
+            System.arraycopy(cards, remaining, hand, 0, hand.length);
+        }
+    }
+
+    private long dealMask(int count) {
+        long mask = 0L;
+        for (int i = 0; i < count; i++) {
+            mask |= 1L << cards[--remaining];
+        }
+        return mask;
     }
 
     public int cardsRemaining() {
-        return cards.size();
+        return remaining;
     }
 
     public List<Card> getCards() {
-        return Collections.unmodifiableList(cards); // 返回不可修改的列表视图
-    };
-}
\ No newline at end of file
+        List<Card> list = new ArrayList<>(remaining);
+        for (int i = 0; i < remaining; i++) {
+            list.add(Card.of(cards[i]));
+        }
+        return Collections.unmodifiableList(list); // 返回不可修改的列表
+    }
+}
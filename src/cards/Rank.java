@@ -16,6 +16,7 @@ public enum Rank {
 
     private final String displayName;
     private final int value; // 对应 x%13 的结果
+    private static final Rank[] VALUES = values(); // 缓存，按取值下标访问
 
     Rank(String displayName, int value) {
         this.displayName = displayName;
@@ -37,10 +38,9 @@ public enum Rank {
      * @throws IllegalArgumentException 如果值无效
      */
     public static Rank fromValue(int rankValue) {
-        for (Rank rank : values()) {
-            if (rank.value == rankValue) {
-                return rank;
-            }
+        // 枚举声明顺序与取值一致，直接按下标查缓存数组，避免每次 values() 复制数组
+        if (rankValue >= 0 && rankValue < VALUES.length) {
+            return VALUES[rankValue];
         }
         throw new IllegalArgumentException("Invalid rank value: " + rankValue);
     }
@@ -7,6 +7,7 @@ public enum Suit {
 
     private final String displayName;
     private final int value; // 对应 x/13 的结果
+    private static final Suit[] VALUES = values(); // 缓存，按取值下标访问
 
     Suit(String displayName, int value) {
         this.displayName = displayName;
@@ -28,10 +29,9 @@ public enum Suit {
      * @throws IllegalArgumentException 如果值无效
      */
     public static Suit fromValue(int suitValue) {
-        for (Suit suit : values()) {
-            if (suit.value == suitValue) {
-                return suit;
-            }
+        // 枚举声明顺序与取值一致，直接按下标查缓存数组，避免每次 values() 复制数组
+        if (suitValue >= 0 && suitValue < VALUES.length) {
+            return VALUES[suitValue];
         }
         throw new IllegalArgumentException("Invalid suit value: " + suitValue);
     }